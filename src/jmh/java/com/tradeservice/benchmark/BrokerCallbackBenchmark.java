@@ -0,0 +1,76 @@
+package com.tradeservice.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.TradeserviceApplication;
+import com.client.service.BrokerResponseCallBack;
+import com.client.service.TradeExpiryQueue;
+
+/**
+ * Benchmark of a broker response, from the callback until the status is
+ * cached and queued for the database. Every invocation registers a new
+ * pending trade first, its deadline is far enough for the response to
+ * arrive before the expiry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrokerCallbackBenchmark {
+
+    private static final long DEADLINE_MILLIS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private BrokerResponseCallBack callback;
+    private TradeExpiryQueue tradeExpiryQueue;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TradeserviceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:callback-benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        callback = context.getBean(BrokerResponseCallBack.class);
+        tradeExpiryQueue = context.getBean(TradeExpiryQueue.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void successful() {
+        callback.successful(pendingTrade());
+    }
+
+    @Benchmark
+    public void unsuccessful() {
+        callback.unsuccessful(pendingTrade(), "No available quotes");
+    }
+
+    private UUID pendingTrade() {
+        UUID id = UUID.randomUUID();
+        tradeExpiryQueue.schedule(id, System.currentTimeMillis() + DEADLINE_MILLIS);
+        return id;
+    }
+}
@@ -0,0 +1,59 @@
+package com.tradeservice.benchmark;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.broker.external.BrokerTrade;
+import com.broker.external.BrokerTradeSide;
+
+/**
+ * Benchmark of the broker side of a submission: building the BrokerTrade,
+ * its EqualsBuilder/HashCodeBuilder based equals and hashCode, and the
+ * parsing of the textual trade id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrokerTradeBenchmark {
+
+    private final String textId = "5d9242c0-6f17-461b-96cc-34442bb8b249";
+    private final UUID id = UUID.fromString(textId);
+    private final BigDecimal price = BigDecimal.valueOf(1.123);
+
+    private final BrokerTrade trade = new BrokerTrade(id, "EUR/USD", 1000, BrokerTradeSide.BUY, price);
+    private final BrokerTrade sameTrade = new BrokerTrade(id, "EUR/USD", 1000, BrokerTradeSide.BUY, price);
+
+    @Benchmark
+    public BrokerTrade construct() {
+        return new BrokerTrade(id, "EUR/USD", 1000, BrokerTradeSide.BUY, price);
+    }
+
+    @Benchmark
+    public boolean equalsBuilder() {
+        return trade.equals(sameTrade);
+    }
+
+    @Benchmark
+    public int hashCodeBuilder() {
+        return trade.hashCode();
+    }
+
+    @Benchmark
+    public UUID uuidFromString() {
+        return UUID.fromString(textId);
+    }
+}
@@ -0,0 +1,29 @@
+package com.tradeservice.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point running the trade benchmarks and writing the results as JSON,
+ * so runs of different revisions can be compared side by side.
+ * 
+ * Arguments: [include regex] [result file], defaulting to all the benchmarks
+ * of this package and target/jmh-result.json
+ */
+public class TradeBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : TradeBenchmarks.class.getPackageName() + ".*";
+        String result = args.length > 1 ? args[1] : "target/jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.tradeservice.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.json.TradeJsonSerializers;
+import com.client.pojo.StatusDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Benchmark of the response side of the read end points: the reflective
+ * serialization of a Trade, a page of trades and a StatusDTO against the
+ * hand written serializers of TradeJsonSerializers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeJsonBenchmark {
+
+    private final Trade trade = new Trade(UUID.randomUUID(), 1000L, "EUR/USD", BrokerTradeSide.BUY,
+            BigDecimal.valueOf(1.123), TradeStatus.EXECUTED, null, new Date());
+    private final StatusDTO status = new StatusDTO(TradeStatus.EXECUTED);
+    private final List<Trade> page = new ArrayList<>();
+
+    private ObjectWriter reflective;
+    private ObjectWriter handWritten;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < 100; i++) {
+            page.add(new Trade(UUID.randomUUID(), 1000L + i, "EUR/USD", BrokerTradeSide.SELL,
+                    BigDecimal.valueOf(1.123), TradeStatus.PENDING_EXECUTION, null, new Date()));
+        }
+        reflective = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writer();
+        SimpleModule module = new SimpleModule()
+                .addSerializer(new TradeJsonSerializers.TradeSerializer())
+                .addSerializer(new TradeJsonSerializers.StatusSerializer());
+        handWritten = new ObjectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .registerModule(module).writer();
+    }
+
+    @Benchmark
+    public byte[] tradeReflective() throws Exception {
+        return reflective.writeValueAsBytes(trade);
+    }
+
+    @Benchmark
+    public byte[] tradeHandWritten() throws Exception {
+        return handWritten.writeValueAsBytes(trade);
+    }
+
+    @Benchmark
+    public byte[] pageReflective() throws Exception {
+        return reflective.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageHandWritten() throws Exception {
+        return handWritten.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] statusReflective() throws Exception {
+        return reflective.writeValueAsBytes(status);
+    }
+
+    @Benchmark
+    public byte[] statusHandWritten() throws Exception {
+        return handWritten.writeValueAsBytes(status);
+    }
+
+    @Benchmark
+    public int streamPerTradeBytes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        ObjectWriter writer = handWritten.forType(Trade.class);
+        for (Trade each : page) {
+            out.write(writer.writeValueAsBytes(each));
+            out.write('\n');
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int streamSequenceWriter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        try (SequenceWriter trades = handWritten.forType(Trade.class)
+                .withRootValueSeparator("\n").writeValues(out)) {
+            for (Trade each : page) {
+                trades.write(each);
+            }
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,145 @@
+package com.tradeservice.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.TradeserviceApplication;
+
+/**
+ * Load test submitting trades with a fixed number of requests in flight,
+ * once with platform threads and once with virtual threads
+ * ("trade.threads.virtual"), against the simulated and the external
+ * broker, and printing the throughput and latency percentiles of each run.
+ * The outbox backlog, the dispatch queue and the broker concurrency limit
+ * are sized from the requests in flight, so the runs measure the request
+ * threads and not the rejections. Runs with non 2xx responses are reported
+ * as not comparable.
+ * The external broker sleeps in CompletableFuture.runAsync, on the platform
+ * threads of the common pool whatever the thread mode, so virtual threads
+ * only take its responses off them. The simulated broker schedules its
+ * responses without blocking a thread.
+ * 
+ * Arguments: [in flight requests] [total requests], defaulting to 10000 and 100000
+ */
+public class TradeLoadTest {
+
+    private static final String BODY = "{\"symbol\":\"EUR/USD\",\"quantity\":1000,\"price\":1.123}";
+
+    public static void main(String[] args) throws Exception {
+        int inFlight = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int total = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+        System.out.println(
+                "gateway   threads   in-flight  requests  rejected  errors  throughput/s  p50 ms  p99 ms  max ms");
+        boolean comparable = true;
+        for (String gateway : new String[] { "simulated", "external" }) {
+            for (boolean virtual : new boolean[] { false, true }) {
+                comparable &= run(gateway, virtual, inFlight, total);
+            }
+        }
+        if (!comparable)
+            System.out.println("Runs had non 2xx responses, the throughput and latencies are not comparable");
+    }
+
+    private static boolean run(String gateway, boolean virtual, int inFlight, int total) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TradeserviceApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + gateway + "-" + virtual + ";DB_CLOSE_DELAY=-1",
+                        "trade.threads.virtual=" + virtual,
+                        "trade.broker.gateway=" + gateway,
+                        "trade.outbox.max-backlog=" + (inFlight * 2),
+                        "trade.dispatch.queue-capacity=" + (inFlight * 2),
+                        "trade.broker.limit.min=" + inFlight,
+                        "trade.broker.limit.initial=" + (inFlight * 2),
+                        "trade.broker.limit.max=" + (inFlight * 4),
+                        "server.tomcat.max-connections=" + (inFlight * 2),
+                        "server.tomcat.accept-count=" + inFlight,
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            run(port, Math.min(inFlight, 1000), Math.min(total, 10000));
+            Result result = run(port, inFlight, total);
+            System.out.println(String.format(Locale.ROOT, "%-9s %-9s %9d %9d %9d %7d %13.0f %7.1f %7.1f %7.1f",
+                    gateway, virtual ? "virtual" : "platform", inFlight, total, result.rejected, result.errors,
+                    result.throughput(), result.percentile(0.50), result.percentile(0.99),
+                    result.percentile(1.0)));
+            return result.rejected == 0 && result.errors == 0;
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(int port, int inFlight, int total) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/buy"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                .build();
+
+        Semaphore permits = new Semaphore(inFlight);
+        long[] latencies = new long[total];
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[total];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            permits.acquire();
+            final int index = i;
+            final long sent = System.nanoTime();
+            requests[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error == null && response.statusCode() == 503)
+                            rejected.incrementAndGet();
+                        else if (error != null || response.statusCode() != 201)
+                            errors.incrementAndGet();
+                        permits.release();
+                    });
+        }
+        CompletableFuture.allOf(requests).exceptionally(error -> null).join();
+        return new Result(latencies, rejected.get(), errors.get(), System.nanoTime() - start);
+    }
+
+    private static final class Result {
+
+        private final long[] latencies;
+        private final int rejected;
+        private final int errors;
+        private final long elapsedNanos;
+
+        private Result(long[] latencies, int rejected, int errors, long elapsedNanos) {
+            this.latencies = latencies;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            Arrays.sort(latencies);
+        }
+
+        private double throughput() {
+            return latencies.length * 1e9 / elapsedNanos;
+        }
+
+        private double percentile(double percentile) {
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.tradeservice.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.client.entity.Trade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of the request side of POST /api/buy and /api/sell:
+ * JSON deserialization of the Trade followed by the bean validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeRequestBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final byte[] body = "{\"symbol\":\"EUR/USD\",\"quantity\":1000,\"price\":1.123}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Trade deserialize() throws Exception {
+        return mapper.readValue(body, Trade.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Trade>> deserializeAndValidate() throws Exception {
+        return validator.validate(mapper.readValue(body, Trade.class));
+    }
+}
@@ -0,0 +1,129 @@
+package com.tradeservice.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.TradeserviceApplication;
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradePage;
+import com.client.respository.TradeJdbcRepository;
+import com.client.service.IdGenerator;
+import com.client.service.TradeService;
+
+/**
+ * Benchmark of the TradeService hot paths against an in memory H2 database,
+ * with the table holding tradeCount trades before every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeServiceBenchmark {
+
+    private static final int INSERT_BATCH_SIZE = 10000;
+
+    @Param({ "1000", "100000" })
+    public int tradeCount;
+
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+    private UUID[] tradeIds;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TradeserviceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark-" + tradeCount + ";DB_CLOSE_DELAY=-1",
+                        "trade.dispatch.queue-capacity=10000000",
+                        "logging.level.root=WARN")
+                .run();
+        tradeService = context.getBean(TradeService.class);
+        tradeIds = insertTrades(context.getBean(TradeJdbcRepository.class), tradeCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Trade saveTrade() throws Exception {
+        return tradeService.saveTrade(newTrade(), BrokerTradeSide.BUY);
+    }
+
+    @Benchmark
+    public StatusDTO getTradeStatus() {
+        return tradeService.getTradeStatus(tradeIds[ThreadLocalRandom.current().nextInt(tradeIds.length)]);
+    }
+
+    @Benchmark
+    public TradeDTO getTrade() {
+        return tradeService.getTrade(tradeIds[ThreadLocalRandom.current().nextInt(tradeIds.length)]);
+    }
+
+    @Benchmark
+    public TradePage getTradesFirstPage() {
+        return tradeService.getTrades(null, 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void streamAllTrades(Blackhole blackhole) {
+        tradeService.streamAllTrades(blackhole::consume);
+    }
+
+    private static UUID[] insertTrades(TradeJdbcRepository tradeJdbcRepository, int count) {
+        UUID[] ids = new UUID[count];
+        List<Trade> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            Trade trade = newTrade();
+            trade.setId(IdGenerator.newId());
+            trade.setSide(i % 2 == 0 ? BrokerTradeSide.BUY : BrokerTradeSide.SELL);
+            trade.setStatus(i % 3 == 0 ? TradeStatus.NOT_EXECUTED : TradeStatus.EXECUTED);
+            trade.setTimeStamp(new Date());
+            ids[i] = trade.getId();
+            batch.add(trade);
+            if (batch.size() == INSERT_BATCH_SIZE || i == count - 1) {
+                tradeJdbcRepository.insertTrades(batch);
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    private static Trade newTrade() {
+        Trade trade = new Trade();
+        trade.setSymbol("EUR/USD");
+        trade.setQuantity(1000);
+        trade.setPrice(BigDecimal.valueOf(1.123));
+        return trade;
+    }
+}
@@ -0,0 +1,159 @@
+package com.client.broker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limit of the trades in flight at the broker, adapted to its latency.
+ * A short and a long moving average of the round trip times are kept, while
+ * the short one stays within the tolerance of the long one the limit grows
+ * by its square root on every sample, once the broker slows down the limit
+ * shrinks in proportion, to half of it at most per sample. Requests without
+ * a response are sampled at their timeout, so they push the limit down like
+ * a slow broker does, random losses alone only cost a small step.
+ * Samples taken while less than half of the limit is used do not grow it.
+ */
+@Component
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_SMOOTHING = 2.0 / (10 + 1);
+    private static final double LONG_SMOOTHING = 2.0 / (600 + 1);
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    @Autowired
+    public AdaptiveConcurrencyLimit(@Value("${trade.broker.limit.initial:1000}") int initialLimit,
+            @Value("${trade.broker.limit.min:20}") int minLimit,
+            @Value("${trade.broker.limit.max:10000}") int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("broker limits must satisfy 1 <= min <= initial <= max");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Method to wait for a free slot under the limit
+     * 
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                available.await(100, TimeUnit.MILLISECONDS);
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to take a free slot under the limit without waiting
+     * 
+     * @return false if the limit is reached
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit)
+                return false;
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to free a slot without a sample, e.g. when the request was not sent
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to free a slot and adapt the limit to the round trip time
+     * 
+     * @param rttNanos round trip time, or the timeout when nothing came back
+     * @param dropped  true if the broker did not respond
+     */
+    public void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            sample(rttNanos, dropped || saturated);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long rttNanos, boolean adapt) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_SMOOTHING;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_SMOOTHING;
+        // recover the baseline quickly once a slow period is over
+        if (longRttNanos > 2 * shortRttNanos)
+            longRttNanos *= 0.95;
+        if (!adapt)
+            return;
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+    }
+
+    /**
+     * @return current limit of the trades in flight
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return trades in flight at the broker
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.client.broker;
+
+import java.util.Collection;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+
+/**
+ * Service provider interface of the brokers the trades are submitted to.
+ * Every submitted trade gets at most one response on the callback the
+ * gateway was created with, a gateway may also never respond.
+ */
+public interface BrokerGateway {
+
+    /**
+     * Method to submit the trade for execution
+     * 
+     * @param trade BrokerTrade
+     * @throws InterruptedException when interrupted while waiting to submit
+     */
+    void execute(BrokerTrade trade) throws InterruptedException;
+
+    /**
+     * Method to submit the trades for execution, one by one by default
+     * 
+     * @param trades BrokerTrades
+     * @throws InterruptedException when interrupted while waiting to submit
+     */
+    default void execute(Collection<BrokerTrade> trades) throws InterruptedException {
+        for (BrokerTrade trade : trades) {
+            execute(trade);
+        }
+    }
+
+    /**
+     * Factory of the gateways, given where their responses go
+     */
+    @FunctionalInterface
+    interface Factory {
+
+        /**
+         * @param callback  receives the responses of the broker
+         * @param scheduler runs the timed tasks of the gateway
+         * @return new BrokerGateway
+         */
+        BrokerGateway create(BrokerResponseCallback callback, ScheduledExecutorService scheduler);
+    }
+}
@@ -0,0 +1,128 @@
+package com.client.broker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker in front of the broker, over a window of the last calls.
+ * Once at least the minimum number of calls is in the window and the share
+ * of failures reaches the threshold the circuit opens and requests are
+ * refused. After the open time a limited number of trial requests is let
+ * through, the circuit closes when all of them succeed and opens again on
+ * the first failure.
+ */
+@Component
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenTrials;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int trialsAllowed;
+    private int trialsSucceeded;
+
+    @Autowired
+    public CircuitBreaker(@Value("${trade.broker.circuit.window:100}") int windowSize,
+            @Value("${trade.broker.circuit.min-calls:20}") int minCalls,
+            @Value("${trade.broker.circuit.failure-rate:0.5}") double failureRateThreshold,
+            @Value("${trade.broker.circuit.open-millis:5000}") long openMillis,
+            @Value("${trade.broker.circuit.half-open-trials:5}") int halfOpenTrials) {
+        this.window = new boolean[windowSize];
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenTrials = halfOpenTrials;
+    }
+
+    /**
+     * Method to check whether a request may be sent to the broker
+     * 
+     * @return false if the circuit is open, or all trials are taken
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos)
+                return false;
+            state = State.HALF_OPEN;
+            trialsAllowed = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsAllowed >= halfOpenTrials)
+                return false;
+            trialsAllowed++;
+        }
+        return true;
+    }
+
+    /**
+     * Method to record a request the broker responded to
+     */
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenTrials)
+                close();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Method to record a request the broker did not respond to
+     */
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (calls >= minCalls && failures >= failureRateThreshold * calls)
+                open();
+        }
+    }
+
+    /**
+     * @return current state of the circuit
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next])
+                failures--;
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure)
+            failures++;
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.client.broker;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+import com.broker.external.ExternalBroker;
+
+/**
+ * Gateway to the External Broker, which responds within 2 seconds
+ * or not at all. The External Broker runs every trade on its own, so
+ * the scheduler is not used.
+ */
+public class ExternalBrokerGateway implements BrokerGateway {
+
+    private final ExternalBroker externalBroker;
+
+    public ExternalBrokerGateway(BrokerResponseCallback callback, ScheduledExecutorService scheduler) {
+        this.externalBroker = new ExternalBroker(callback);
+    }
+
+    @Override
+    public void execute(BrokerTrade trade) {
+        externalBroker.execute(trade);
+    }
+}
@@ -0,0 +1,238 @@
+package com.client.broker;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+import com.client.service.TradeMetrics;
+
+/**
+ * Gateway guarding another broker gateway. Trades are only sent while the
+ * circuit breaker allows it and within the adaptive concurrency limit,
+ * every attempt gets a timeout. An attempt the broker does not respond to
+ * is sent again after a jittered exponential backoff, the trade is answered
+ * as unsuccessful once the last attempt timed out. The broker is expected
+ * to execute a trade id once, so a response to an earlier attempt answers
+ * the trade as well, responses of answered trades are dropped.
+ */
+public class ResilientBrokerGateway implements BrokerGateway, BrokerResponseCallback {
+
+    private static final Logger logger = LogManager.getLogger(ResilientBrokerGateway.class);
+
+    static final String NO_RESPONSE_REASON = "no broker response";
+    static final String UNAVAILABLE_REASON = "broker unavailable";
+
+    private final BrokerResponseCallback callback;
+    private final ScheduledExecutorService scheduler;
+    private final AdaptiveConcurrencyLimit limit;
+    private final CircuitBreaker circuitBreaker;
+    private final TradeMetrics tradeMetrics;
+    private final long attemptTimeoutNanos;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final BrokerGateway broker;
+
+    private final Map<UUID, Attempt> attempts = new ConcurrentHashMap<>();
+
+    /**
+     * @param broker               factory of the guarded gateway
+     * @param callback             receives the responses
+     * @param scheduler            runs the timeouts and the retries
+     * @param limit                limit of the trades in flight
+     * @param circuitBreaker       circuit breaker of the broker
+     * @param tradeMetrics         records the timeouts, retries and refused trades
+     * @param attemptTimeoutMillis time the broker has to respond to an attempt
+     * @param maxAttempts          attempts per trade
+     * @param backoffBaseMillis    backoff before the first retry
+     * @param backoffMaxMillis     maximum backoff before a retry
+     */
+    public ResilientBrokerGateway(BrokerGateway.Factory broker, BrokerResponseCallback callback,
+            ScheduledExecutorService scheduler, AdaptiveConcurrencyLimit limit, CircuitBreaker circuitBreaker,
+            TradeMetrics tradeMetrics, long attemptTimeoutMillis, int maxAttempts, long backoffBaseMillis,
+            long backoffMaxMillis) {
+        this.callback = callback;
+        this.scheduler = scheduler;
+        this.limit = limit;
+        this.circuitBreaker = circuitBreaker;
+        this.tradeMetrics = tradeMetrics;
+        this.attemptTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(attemptTimeoutMillis);
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.broker = broker.create(this, scheduler);
+    }
+
+    /**
+     * Method to send the trade once the circuit and the concurrency limit allow it.
+     * Blocks while the limit is reached, an open circuit answers the trade as
+     * unsuccessful right away.
+     */
+    @Override
+    public void execute(BrokerTrade trade) throws InterruptedException {
+        if (!circuitBreaker.allowRequest()) {
+            tradeMetrics.brokerRefused();
+            callback.unsuccessful(trade.getId(), UNAVAILABLE_REASON);
+            return;
+        }
+        limit.acquire();
+        Attempt attempt = new Attempt(trade);
+        attempts.put(trade.getId(), attempt);
+        send(attempt);
+    }
+
+    @Override
+    public void successful(UUID tradeId) {
+        if (responded(tradeId))
+            callback.successful(tradeId);
+    }
+
+    @Override
+    public void unsuccessful(UUID tradeId, String reason) {
+        if (responded(tradeId))
+            callback.unsuccessful(tradeId, reason);
+    }
+
+    /**
+     * @return trades sent and not answered yet, including those waiting for a retry
+     */
+    public int getPendingCount() {
+        return attempts.size();
+    }
+
+    /**
+     * Method to close the attempts of the trade the broker responded to
+     * 
+     * @param tradeId Trade Id
+     * @return false if the trade was answered already
+     */
+    private boolean responded(UUID tradeId) {
+        Attempt attempt = attempts.remove(tradeId);
+        if (attempt == null)
+            return false;
+        boolean inFlight;
+        long rttNanos;
+        synchronized (attempt) {
+            if (attempt.done)
+                return false;
+            attempt.done = true;
+            inFlight = attempt.inFlight;
+            attempt.inFlight = false;
+            rttNanos = System.nanoTime() - attempt.sentNanos;
+            if (attempt.timer != null)
+                attempt.timer.cancel(false);
+        }
+        if (inFlight) {
+            limit.release(rttNanos, false);
+            circuitBreaker.recordSuccess();
+        }
+        return true;
+    }
+
+    /**
+     * Method to send the next attempt of the trade, holding a slot of the limit
+     */
+    private void send(Attempt attempt) throws InterruptedException {
+        synchronized (attempt) {
+            if (attempt.done) {
+                limit.release();
+                return;
+            }
+            int number = ++attempt.number;
+            attempt.inFlight = true;
+            attempt.sentNanos = System.nanoTime();
+            attempt.timer = scheduler.schedule(() -> timedOut(attempt, number), attemptTimeoutNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+        try {
+            broker.execute(attempt.trade);
+        } catch (RuntimeException e) {
+            // the attempt times out and is retried like a lost one
+            logger.error("Exception while sending trade " + attempt.trade.getId() + " to the broker", e);
+        }
+    }
+
+    private void timedOut(Attempt attempt, int number) {
+        boolean last;
+        synchronized (attempt) {
+            if (attempt.done || !attempt.inFlight || attempt.number != number)
+                return;
+            attempt.inFlight = false;
+            last = number >= maxAttempts;
+            if (last)
+                attempt.done = true;
+            else
+                attempt.timer = scheduler.schedule(() -> retry(attempt), backoffMillis(number),
+                        TimeUnit.MILLISECONDS);
+        }
+        limit.release(attemptTimeoutNanos, true);
+        circuitBreaker.recordFailure();
+        tradeMetrics.brokerTimedOut();
+        if (last) {
+            attempts.remove(attempt.trade.getId(), attempt);
+            callback.unsuccessful(attempt.trade.getId(), NO_RESPONSE_REASON);
+        }
+    }
+
+    private void retry(Attempt attempt) {
+        synchronized (attempt) {
+            if (attempt.done)
+                return;
+            if (!limit.tryAcquire()) {
+                attempt.timer = scheduler.schedule(() -> retry(attempt), backoffBaseMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        if (!circuitBreaker.allowRequest()) {
+            limit.release();
+            if (attempts.remove(attempt.trade.getId(), attempt)) {
+                synchronized (attempt) {
+                    attempt.done = true;
+                }
+                tradeMetrics.brokerRefused();
+                callback.unsuccessful(attempt.trade.getId(), UNAVAILABLE_REASON);
+            }
+            return;
+        }
+        tradeMetrics.brokerRetried();
+        try {
+            send(attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Full jitter backoff, random between 0 and the doubled backoff of the attempt
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Attempts of a trade, guarded by its own monitor
+     */
+    private static final class Attempt {
+
+        private final BrokerTrade trade;
+        private int number;
+        private boolean inFlight;
+        private boolean done;
+        private long sentNanos;
+        private ScheduledFuture<?> timer;
+
+        private Attempt(BrokerTrade trade) {
+            this.trade = trade;
+        }
+    }
+}
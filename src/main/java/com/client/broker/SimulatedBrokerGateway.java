@@ -0,0 +1,68 @@
+package com.client.broker;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+
+/**
+ * Local broker for load tests, with a configurable latency and outcome.
+ * The latency follows a log-normal distribution of the given median and
+ * shape, capped to a maximum, as the latencies of real brokers have a long
+ * tail. Every trade is rejected or dropped without a response with the
+ * given probabilities and executed otherwise.
+ */
+public class SimulatedBrokerGateway implements BrokerGateway {
+
+    static final String UNSUCCESSFUL_REASON = "No available quotes";
+
+    private final BrokerResponseCallback callback;
+    private final ScheduledExecutorService scheduler;
+    private final double latencyMedianMillis;
+    private final double latencySigma;
+    private final long latencyMaxMillis;
+    private final double unsuccessfulRate;
+    private final double dropRate;
+
+    /**
+     * @param callback            receives the responses
+     * @param scheduler           runs the delayed responses
+     * @param latencyMedianMillis median latency of the responses
+     * @param latencySigma        shape of the log-normal latency, 0 for a constant latency
+     * @param latencyMaxMillis    maximum latency of the responses
+     * @param unsuccessfulRate    probability of an unsuccessful response
+     * @param dropRate            probability of no response at all
+     */
+    public SimulatedBrokerGateway(BrokerResponseCallback callback, ScheduledExecutorService scheduler,
+            long latencyMedianMillis, double latencySigma, long latencyMaxMillis, double unsuccessfulRate,
+            double dropRate) {
+        if (unsuccessfulRate < 0 || dropRate < 0 || unsuccessfulRate + dropRate > 1)
+            throw new IllegalArgumentException("unsuccessful and drop rates must be between 0 and 1 in total");
+        this.callback = callback;
+        this.scheduler = scheduler;
+        this.latencyMedianMillis = latencyMedianMillis;
+        this.latencySigma = latencySigma;
+        this.latencyMaxMillis = latencyMaxMillis;
+        this.unsuccessfulRate = unsuccessfulRate;
+        this.dropRate = dropRate;
+    }
+
+    @Override
+    public void execute(BrokerTrade trade) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double outcome = random.nextDouble();
+        if (outcome < dropRate)
+            return;
+        boolean successful = outcome >= dropRate + unsuccessfulRate;
+        long latency = Math.min(latencyMaxMillis,
+                Math.round(latencyMedianMillis * Math.exp(latencySigma * random.nextGaussian())));
+        scheduler.schedule(() -> {
+            if (successful)
+                callback.successful(trade.getId());
+            else
+                callback.unsuccessful(trade.getId(), UNSUCCESSFUL_REASON);
+        }, latency, TimeUnit.MILLISECONDS);
+    }
+}
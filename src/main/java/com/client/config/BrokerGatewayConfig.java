@@ -0,0 +1,48 @@
+package com.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.client.broker.AdaptiveConcurrencyLimit;
+import com.client.broker.BrokerGateway;
+import com.client.broker.CircuitBreaker;
+import com.client.broker.ExternalBrokerGateway;
+import com.client.broker.ResilientBrokerGateway;
+import com.client.broker.SimulatedBrokerGateway;
+import com.client.service.TradeMetrics;
+
+/**
+ * Configuration class to select the broker the trades are sent to,
+ * "external" (default) or "simulated" for load tests, guarded by the
+ * concurrency limit, the retries and the circuit breaker
+ */
+@Configuration
+public class BrokerGatewayConfig {
+
+    @Bean
+    public BrokerGateway.Factory brokerGatewayFactory(@Value("${trade.broker.gateway:external}") String name,
+            AdaptiveConcurrencyLimit limit, CircuitBreaker circuitBreaker, TradeMetrics tradeMetrics,
+            @Value("${trade.broker.attempt-timeout-millis:3000}") long attemptTimeoutMillis,
+            @Value("${trade.broker.max-attempts:3}") int maxAttempts,
+            @Value("${trade.broker.backoff-base-millis:100}") long backoffBaseMillis,
+            @Value("${trade.broker.backoff-max-millis:2000}") long backoffMaxMillis,
+            @Value("${trade.broker.simulated.latency-median-millis:200}") long latencyMedianMillis,
+            @Value("${trade.broker.simulated.latency-sigma:0.5}") double latencySigma,
+            @Value("${trade.broker.simulated.latency-max-millis:2000}") long latencyMaxMillis,
+            @Value("${trade.broker.simulated.unsuccessful-rate:0.1}") double unsuccessfulRate,
+            @Value("${trade.broker.simulated.drop-rate:0.05}") double dropRate) {
+        BrokerGateway.Factory broker;
+        if ("external".equals(name))
+            broker = ExternalBrokerGateway::new;
+        else if ("simulated".equals(name))
+            broker = (callback, scheduler) -> new SimulatedBrokerGateway(callback, scheduler, latencyMedianMillis,
+                    latencySigma, latencyMaxMillis, unsuccessfulRate, dropRate);
+        else
+            throw new IllegalArgumentException("Unknown trade.broker.gateway " + name);
+
+        return (callback, scheduler) -> new ResilientBrokerGateway(broker, callback, scheduler, limit,
+                circuitBreaker, tradeMetrics, attemptTimeoutMillis, maxAttempts, backoffBaseMillis,
+                backoffMaxMillis);
+    }
+}
@@ -0,0 +1,32 @@
+package com.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.client.service.IdGenerator;
+import com.client.service.RandomTradeIdStrategy;
+import com.client.service.TimeOrderedTradeIdStrategy;
+import com.client.service.TradeIdStrategy;
+
+/**
+ * Configuration class to select the strategy for the trade ids,
+ * "time-ordered" (default) or "random"
+ */
+@Configuration
+public class TradeIdConfig {
+
+    @Bean
+    public TradeIdStrategy tradeIdStrategy(@Value("${trade.id.strategy:time-ordered}") String name) {
+        TradeIdStrategy strategy;
+        if ("time-ordered".equals(name))
+            strategy = new TimeOrderedTradeIdStrategy();
+        else if ("random".equals(name))
+            strategy = new RandomTradeIdStrategy();
+        else
+            throw new IllegalArgumentException("Unknown trade.id.strategy " + name);
+
+        IdGenerator.setStrategy(strategy);
+        return strategy;
+    }
+}
@@ -0,0 +1,27 @@
+package com.client.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.client.service.TradeThreads;
+
+/**
+ * Configuration class to run the servlet requests on virtual threads,
+ * one per request, when "trade.threads.virtual" is true.
+ * The broker dispatch and callbacks follow the same property in the
+ * BrokerDispatcher.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+@ConditionalOnProperty(name = "trade.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler
+                .setExecutor(TradeThreads.newThreadPerTaskExecutor("http-request", true));
+    }
+}
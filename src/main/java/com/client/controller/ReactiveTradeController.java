@@ -0,0 +1,230 @@
+package com.client.controller;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import javax.validation.Valid;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.exception.TradeCreationException;
+import com.client.exception.TradeRejectedException;
+import com.client.pojo.BatchTradeResult;
+import com.client.pojo.CacheStatsDTO;
+import com.client.pojo.PositionDTO;
+import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeQuery;
+import com.client.service.ReactiveTradeService;
+import com.client.service.TradeIdempotencyCache;
+import com.client.service.TradeService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class to handle the incoming requests without blocking,
+ * with the same contract as the TradeController.
+ * Active with the "reactive" profile, which runs on WebFlux.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveTradeController {
+
+    @Autowired
+    private ReactiveTradeService reactiveTradeService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final String STATUS_PATH = "/api/trades/{tradeId}/status";
+
+    /**
+     * Longest wait accepted for the final status of a pending trade
+     */
+    private static final long MAX_WAIT_MILLIS = 30000;
+
+    private static final Logger logger = LogManager.getLogger(ReactiveTradeController.class);
+
+    /**
+     * End point to create the trade type of SELL
+     * 
+     * @param trade         Inputs from request Body
+     * @param clientOrderId Idempotency-Key header, the original trade is returned on retries
+     * @param uriBuilder    builder of the request base URI
+     * @return 201 with the location of the trade status
+     */
+    @PostMapping("/api/sell")
+    public Mono<ResponseEntity<Void>> createSellTrade(@RequestBody @Valid Trade trade,
+            @RequestHeader(name = TradeIdempotencyCache.HEADER, required = false) String clientOrderId,
+            UriComponentsBuilder uriBuilder) {
+        return createTrade(trade, BrokerTradeSide.SELL, clientOrderId, uriBuilder);
+    }
+
+    /**
+     * End point to create trade of type BUY
+     * 
+     * @param trade         Inputs from request Body
+     * @param clientOrderId Idempotency-Key header, the original trade is returned on retries
+     * @param uriBuilder    builder of the request base URI
+     * @return 201 with the location of the trade status
+     */
+    @PostMapping("/api/buy")
+    public Mono<ResponseEntity<Void>> createBuyTrade(@RequestBody @Valid Trade trade,
+            @RequestHeader(name = TradeIdempotencyCache.HEADER, required = false) String clientOrderId,
+            UriComponentsBuilder uriBuilder) {
+        return createTrade(trade, BrokerTradeSide.BUY, clientOrderId, uriBuilder);
+    }
+
+    private Mono<ResponseEntity<Void>> createTrade(Trade trade, BrokerTradeSide side, String clientOrderId,
+            UriComponentsBuilder uriBuilder) {
+        TradeIdempotencyCache.checkKey(clientOrderId);
+        return reactiveTradeService.saveTrade(trade, side, clientOrderId)
+                .map(newTrade -> ResponseEntity
+                        .created(uriBuilder.path(STATUS_PATH).buildAndExpand(newTrade.getId()).toUri())
+                        .<Void>build())
+                .onErrorMap(e -> !(e instanceof TradeRejectedException), e -> {
+                    logger.info("Exception while saving the trade for " + side + " :" + e.getMessage());
+                    return new TradeCreationException(e.getMessage());
+                })
+                .doOnError(TradeRejectedException.class, e -> logger.info("Trade rejected :" + e.getMessage()));
+    }
+
+    /**
+     * End point to create a batch of trades, each one with its side BUY/SELL.
+     * Every trade of the batch gets either its status location or its error.
+     * 
+     * @param trades     Inputs from request Body
+     * @param uriBuilder builder of the request base URI
+     * @return BatchTradeResult of every trade, in the order of the request
+     */
+    @PostMapping("/api/trades/batch")
+    public Mono<List<BatchTradeResult>> createTrades(@RequestBody List<Trade> trades,
+            UriComponentsBuilder uriBuilder) {
+        final UriComponentsBuilder location = uriBuilder.path(STATUS_PATH);
+        return reactiveTradeService.saveTrades(trades)
+                .doOnNext(results -> results.stream()
+                        .filter(result -> result.getId() != null && result.getError() == null)
+                        .forEach(result -> result.setLocation(location.buildAndExpand(result.getId()).toUriString())));
+    }
+
+    /**
+     * End Point to Get the Trade based on Id
+     * 
+     * @param tradeId UUID
+     * @return Trade Object
+     */
+    @GetMapping("/api/trades/{tradeId}")
+    public Mono<Trade> getTrade(@PathVariable UUID tradeId) {
+        return reactiveTradeService.getTrade(tradeId);
+    }
+
+    /**
+     * End Point to Get a page of the available Trades, optionally filtered by
+     * symbol, side, status and a [from, to) time range, with only the
+     * requested fields of every trade.
+     * The cursor of the next page is returned in the "next-cursor" header
+     * when more trades are available.
+     * 
+     * @param after  cursor returned by the previous page
+     * @param limit  page size
+     * @param symbol symbol of the trades
+     * @param side   BUY/SELL
+     * @param status status of the trades
+     * @param from   first time stamp of the trades, ISO-8601
+     * @param to     time stamp after the last one of the trades, ISO-8601
+     * @param fields fields of the trades to be returned, all when empty
+     * @return List of Trades
+     */
+    @GetMapping("/api/trades")
+    public Mono<ResponseEntity<List<?>>> getAllTrades(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit, @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) BrokerTradeSide side, @RequestParam(required = false) TradeStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) List<String> fields) {
+        TradeQuery query = new TradeQuery(symbol, side, status, from, to, fields);
+        if (query.isFiltered()) {
+            return reactiveTradeService.getTrades(query, after, limit)
+                    .map(page -> withNextCursor(page.getNextCursor()).body(page.getRows()));
+        }
+        return reactiveTradeService.getTrades(after, limit)
+                .map(page -> withNextCursor(page.getNextCursor()).body(page.getTrades()));
+    }
+
+    /**
+     * End Point to Stream all available Trades as newline delimited JSON,
+     * written as fast as the client reads them
+     * 
+     * @return Flux of the Trades
+     */
+    @GetMapping(value = "/api/trades/stream", produces = APPLICATION_NDJSON)
+    public Flux<Trade> streamAllTrades() {
+        return reactiveTradeService.streamAllTrades();
+    }
+
+    /**
+     * End Point to Get Trade Status.
+     * A pending trade can be waited for up to waitMillis until it gets its
+     * final status, without holding a thread.
+     * 
+     * @param tradeId    UUID
+     * @param waitMillis maximum wait for a pending trade, 0 to return at once
+     * @return StatusDTO which contains the status as
+     *         "NOT_EXECUTED/EXECUTED/PENDING_EXECUTION"
+     */
+    @GetMapping(STATUS_PATH)
+    public Mono<StatusDTO> getTradeStatus(@PathVariable UUID tradeId,
+            @RequestParam(defaultValue = "0") long waitMillis) {
+        return reactiveTradeService.getTradeStatus(tradeId,
+                Duration.ofMillis(Math.max(0, Math.min(waitMillis, MAX_WAIT_MILLIS))));
+    }
+
+    /**
+     * End Point to Get the position of every symbol, with the count, net
+     * quantity and notional of its trades per status
+     * 
+     * @return List of PositionDTO ordered by symbol
+     */
+    @GetMapping("/api/positions")
+    public List<PositionDTO> getPositions() {
+        return tradeService.getPositions();
+    }
+
+    /**
+     * End Point to Get the counters of the trade status cache
+     * 
+     * @return CacheStatsDTO with the hits, misses, evictions and size
+     */
+    @GetMapping("/api/stats/status-cache")
+    public CacheStatsDTO getStatusCacheStats() {
+        return tradeService.getStatusCacheStats();
+    }
+
+    private static ResponseEntity.BodyBuilder withNextCursor(String nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null)
+            response.header("next-cursor", nextCursor);
+        return response;
+    }
+}
@@ -1,7 +1,13 @@
 package com.client.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
@@ -9,53 +15,110 @@ import javax.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import com.broker.external.BrokerTradeSide;
 import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.exception.InvalidCursorException;
+import com.client.exception.InvalidIdempotencyKeyException;
+import com.client.exception.InvalidSubscriptionException;
+import com.client.exception.InvalidTradeQueryException;
+import com.client.exception.TradeBatchTooLargeException;
 import com.client.exception.TradeCreationException;
 import com.client.exception.TradeNotFoundException;
+import com.client.exception.TradeRejectedException;
+import com.client.pojo.BatchTradeResult;
+import com.client.pojo.CacheStatsDTO;
+import com.client.pojo.PositionDTO;
 import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradePage;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+import com.client.service.TradeIdempotencyCache;
 import com.client.service.TradeService;
+import com.client.service.TradeStatusPublisher;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
  * Controller class to handle the incoming requests
+ * Replaced by the ReactiveTradeController with the "reactive" profile.
  */
 @RestController
+@Profile("!reactive")
 public class TradeController {
 
     @Autowired
     private TradeService tradeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TradeStatusPublisher tradeStatusPublisher;
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Number of streamed trades written before flushing the response
+     */
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
+    /**
+     * Maximum number of trades of a single status subscription
+     */
+    private static final int MAX_SUBSCRIBED_TRADES = 1000;
+
     private static final Logger logger = LogManager.getLogger(TradeController.class);
 
     /**
      * End point to create the trade type of SELL
      * 
-     * @param trade    Inputs from request Body
-     * @param response HttpServletResponse 
+     * @param trade         Inputs from request Body
+     * @param clientOrderId Idempotency-Key header, the original trade is returned on retries
+     * @param response      HttpServletResponse 
      * @throws TradeCreationException
+     * @throws TradeRejectedException
+     * @throws InvalidIdempotencyKeyException
      */
     @PostMapping("/api/sell")
     @ResponseStatus(code = HttpStatus.CREATED)
-    public void createSellTrade(@RequestBody @Valid Trade trade, HttpServletResponse response)
-            throws TradeCreationException {
+    public void createSellTrade(@RequestBody @Valid Trade trade,
+            @RequestHeader(name = TradeIdempotencyCache.HEADER, required = false) String clientOrderId,
+            HttpServletResponse response)
+            throws TradeCreationException, TradeRejectedException, InvalidIdempotencyKeyException {
 
+        TradeIdempotencyCache.checkKey(clientOrderId);
         try {
-            trade = tradeService.saveTrade(trade, BrokerTradeSide.SELL);
+            trade = tradeService.saveTrade(trade, BrokerTradeSide.SELL, clientOrderId);
             final URI location = MvcUriComponentsBuilder.fromController(getClass())
                     .path("/api/trades/{tradeId}/status")
                     .buildAndExpand(trade.getId())
                     .toUri();
 
             response.setHeader("location", location.toString());
+        } catch (TradeRejectedException e) {
+            logger.info("Trade rejected :" + e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.info("Exception while saving the trade for sell :" + e.getMessage());
             throw new TradeCreationException(e.getMessage());
@@ -66,23 +129,32 @@ public class TradeController {
     /**
      * End point to create trade of type BUY
      * 
-     * @param trade    Inputs from request Body
-     * @param response HttpServletResponse
+     * @param trade         Inputs from request Body
+     * @param clientOrderId Idempotency-Key header, the original trade is returned on retries
+     * @param response      HttpServletResponse
      * @throws TradeCreationException
+     * @throws TradeRejectedException
+     * @throws InvalidIdempotencyKeyException
      */
     @PostMapping("/api/buy")
     @ResponseStatus(code = HttpStatus.CREATED)
-    public void createBuyTrade(@RequestBody @Valid Trade trade, HttpServletResponse response)
-            throws TradeCreationException {
+    public void createBuyTrade(@RequestBody @Valid Trade trade,
+            @RequestHeader(name = TradeIdempotencyCache.HEADER, required = false) String clientOrderId,
+            HttpServletResponse response)
+            throws TradeCreationException, TradeRejectedException, InvalidIdempotencyKeyException {
 
+        TradeIdempotencyCache.checkKey(clientOrderId);
         try {
-            trade = tradeService.saveTrade(trade, BrokerTradeSide.BUY);
+            trade = tradeService.saveTrade(trade, BrokerTradeSide.BUY, clientOrderId);
             final URI location = MvcUriComponentsBuilder.fromController(getClass())
                     .path("/api/trades/{tradeId}/status")
                     .buildAndExpand(trade.getId())
                     .toUri();
 
             response.setHeader("location", location.toString());
+        } catch (TradeRejectedException e) {
+            logger.info("Trade rejected :" + e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.info("Exception while saving the trade for sell :" + e.getMessage());
             throw new TradeCreationException(e.getMessage());
@@ -90,26 +162,120 @@ public class TradeController {
 
     }
 
+    /**
+     * End point to create a batch of trades, each one with its side BUY/SELL.
+     * Every trade of the batch gets either its status location or its error.
+     * 
+     * @param trades Inputs from request Body
+     * @return BatchTradeResult of every trade, in the order of the request
+     * @throws TradeBatchTooLargeException
+     * @throws TradeRejectedException
+     */
+    @PostMapping("/api/trades/batch")
+    public List<BatchTradeResult> createTrades(@RequestBody List<Trade> trades)
+            throws TradeBatchTooLargeException, TradeRejectedException {
+
+        List<BatchTradeResult> results = tradeService.saveTrades(trades);
+        final UriComponentsBuilder location = MvcUriComponentsBuilder.fromController(getClass())
+                .path("/api/trades/{tradeId}/status");
+        results.stream().filter(result -> result.getId() != null && result.getError() == null)
+                .forEach(result -> result.setLocation(location.buildAndExpand(result.getId()).toUriString()));
+
+        return results;
+    }
+
     /**
      * End Point to Get the Trade based on Id
      * 
      * @param tradeId UUID
-     * @return Trade Object
+     * @return TradeDTO Object
      * @throws TradeNotFoundException
      */
     @GetMapping("/api/trades/{tradeId}")
-    public Trade getTrade(@PathVariable String tradeId) throws TradeNotFoundException {
+    public TradeDTO getTrade(@PathVariable UUID tradeId) throws TradeNotFoundException {
         return tradeService.getTrade(tradeId);
     }
 
     /**
-     * End Point to Get all available Trades
+     * End Point to Get a page of the available Trades, optionally filtered by
+     * symbol, side, status and a [from, to) time range, with only the
+     * requested fields of every trade.
+     * The cursor of the next page is returned in the "next-cursor" header
+     * when more trades are available.
      * 
+     * @param after    cursor returned by the previous page
+     * @param limit    page size
+     * @param symbol   symbol of the trades
+     * @param side     BUY/SELL
+     * @param status   status of the trades
+     * @param from     first time stamp of the trades, ISO-8601
+     * @param to       time stamp after the last one of the trades, ISO-8601
+     * @param fields   fields of the trades to be returned, all when empty
+     * @param response HttpServletResponse
      * @return List of Trades
+     * @throws InvalidCursorException
+     * @throws InvalidTradeQueryException
      */
     @GetMapping("/api/trades")
-    public List<Trade> getAllTrades() {
-        return tradeService.getAllTrades();
+    public List<?> getAllTrades(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit, @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) BrokerTradeSide side, @RequestParam(required = false) TradeStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) List<String> fields, HttpServletResponse response)
+            throws InvalidCursorException, InvalidTradeQueryException {
+        TradeQuery query = new TradeQuery(symbol, side, status, from, to, fields);
+        if (query.isFiltered()) {
+            TradeRowPage page = tradeService.getTrades(query, after, limit);
+            if (page.getNextCursor() != null)
+                response.setHeader("next-cursor", page.getNextCursor());
+
+            return page.getRows();
+        }
+
+        TradePage page = tradeService.getTrades(after, limit);
+        if (page.getNextCursor() != null)
+            response.setHeader("next-cursor", page.getNextCursor());
+
+        return page.getTrades();
+    }
+
+    /**
+     * End Point to Stream all available Trades as newline delimited JSON.
+     * Trades are written as they are read from the database so the memory
+     * used does not depend on the number of trades. All trades go through a
+     * single generator and its buffer, which is flushed every
+     * STREAM_FLUSH_INTERVAL trades.
+     * 
+     * @param response HttpServletResponse
+     * @throws IOException
+     */
+    @GetMapping(value = "/api/trades/stream", produces = APPLICATION_NDJSON)
+    public void streamAllTrades(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON);
+        final OutputStream out = response.getOutputStream();
+        final int[] written = { 0 };
+
+        try (SequenceWriter trades = objectMapper.writerFor(TradeDTO.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            tradeService.streamAllTrades(trade -> {
+                try {
+                    trades.write(trade);
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0)
+                        trades.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (written[0] > 0)
+            out.write('\n');
+        out.flush();
     }
 
     /**
@@ -121,8 +287,61 @@ public class TradeController {
      * @throws TradeNotFoundException
      */
     @GetMapping("/api/trades/{tradeId}/status")
-    public StatusDTO getTradeStatus(@PathVariable String tradeId) throws TradeNotFoundException {
+    public StatusDTO getTradeStatus(@PathVariable UUID tradeId) throws TradeNotFoundException {
         return tradeService.getTradeStatus(tradeId);
     }
 
+    /**
+     * End Point to Subscribe to the status of a Trade as server sent events.
+     * A "status" event is sent with the current status and another one with
+     * the final status as soon as it is known, then the stream completes.
+     * 
+     * @param tradeId UUID
+     * @return SseEmitter of the status events
+     * @throws TradeNotFoundException
+     */
+    @GetMapping(value = "/api/trades/{tradeId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTradeStatus(@PathVariable UUID tradeId) throws TradeNotFoundException {
+        return tradeStatusPublisher.subscribe(Collections.singletonList(tradeId));
+    }
+
+    /**
+     * End Point to Subscribe to the status of many Trades on a single stream
+     * of server sent events, completed once every trade has its final status.
+     * 
+     * @param ids Trade Ids, at most MAX_SUBSCRIBED_TRADES
+     * @return SseEmitter of the status events
+     * @throws TradeNotFoundException
+     * @throws InvalidSubscriptionException
+     */
+    @GetMapping(value = "/api/trades/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTradeStatuses(@RequestParam List<UUID> ids)
+            throws TradeNotFoundException, InvalidSubscriptionException {
+        if (ids.isEmpty() || ids.size() > MAX_SUBSCRIBED_TRADES)
+            throw new InvalidSubscriptionException(
+                    "ids must contain between 1 and " + MAX_SUBSCRIBED_TRADES + " trade ids");
+        return tradeStatusPublisher.subscribe(ids);
+    }
+
+    /**
+     * End Point to Get the position of every symbol, with the count, net
+     * quantity and notional of its trades per status
+     * 
+     * @return List of PositionDTO ordered by symbol
+     */
+    @GetMapping("/api/positions")
+    public List<PositionDTO> getPositions() {
+        return tradeService.getPositions();
+    }
+
+    /**
+     * End Point to Get the counters of the trade status cache
+     * 
+     * @return CacheStatsDTO with the hits, misses, evictions and size
+     */
+    @GetMapping("/api/stats/status-cache")
+    public CacheStatsDTO getStatusCacheStats() {
+        return tradeService.getStatusCacheStats();
+    }
+
 }
@@ -0,0 +1,126 @@
+package com.client.entity;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+import com.broker.external.BrokerTradeSide;
+
+/**
+ * Entity class to represent the trade_archive table in Database.
+ * Holds the executed and not executed trades the TradeArchiver moved out of
+ * the trade table, with the same columns. Archived trades never change.
+ */
+@Entity
+@Immutable
+@Table(name = "trade_archive")
+public class ArchivedTrade {
+
+    private UUID id;
+    private long quantity;
+    private String symbol;
+    private BrokerTradeSide side;
+    private BigDecimal price;
+    private TradeStatus status;
+    private String reason;
+    private Date timeStamp;
+    private String clientOrderId;
+
+    public ArchivedTrade() {
+    }
+
+    @Id
+    @Type(type = "uuid-binary")
+    @Column(length = 16)
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public BrokerTradeSide getSide() {
+        return side;
+    }
+
+    public void setSide(BrokerTradeSide side) {
+        this.side = side;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    @Convert(converter = TradeStatusConverter.class)
+    @Column(length = 1)
+    public TradeStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TradeStatus status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Date getTimeStamp() {
+        return timeStamp;
+    }
+
+    public void setTimeStamp(Date timeStamp) {
+        this.timeStamp = timeStamp;
+    }
+
+    @Column(length = 64)
+    public String getClientOrderId() {
+        return clientOrderId;
+    }
+
+    public void setClientOrderId(String clientOrderId) {
+        this.clientOrderId = clientOrderId;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedTrade [id=" + id + ", quantity=" + quantity + ", symbol=" + symbol + ", side=" + side
+                + ", price=" + price + ", status=" + status + ", reason=" + reason + ", timeStamp=" + timeStamp
+                + ", clientOrderId=" + clientOrderId + "]";
+    }
+
+}
@@ -3,10 +3,14 @@ package com.client.entity;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Date;
+import java.util.UUID;
 
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
@@ -15,32 +19,41 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 
 import com.broker.external.BrokerTradeSide;
+import com.client.pojo.TradeView;
 import com.client.service.IdGenerator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
 /**
  * Entity class to represent Trade table in Database
  */
 @Entity
-@Table(name = "trade")
-public class Trade implements Serializable {
+@Table(name = "trade", indexes = {
+        @Index(name = "idx_trade_time_stamp_id", columnList = "timeStamp, id"),
+        @Index(name = "idx_trade_status_time_stamp", columnList = "status, timeStamp"),
+        @Index(name = "idx_trade_symbol_side_status_time_stamp", columnList = "symbol, side, status, timeStamp, id"),
+        @Index(name = "uk_trade_client_order_id", columnList = "clientOrderId", unique = true) })
+public class Trade implements Serializable, TradeView {
 
     private static final long serialVersionUID = 1L;
 
-    private String Id;
+    private UUID Id;
     private long quantity;
     private String symbol;
     private BrokerTradeSide side;
     private BigDecimal price;
-    private String status;
+    private TradeStatus status;
     private String reason = null;
     private Date timeStamp;
+    private String clientOrderId;
 
     public Trade() {
     }
 
-    public Trade(String id, long quantity, String symbol, BrokerTradeSide side, BigDecimal price, String status,
+    public Trade(UUID id, long quantity, String symbol, BrokerTradeSide side, BigDecimal price, TradeStatus status,
             String reason, Date timeStamp) {
         Id = id;
         this.quantity = quantity;
@@ -55,11 +68,13 @@ public class Trade implements Serializable {
     @Id
     @GeneratedValue(generator = IdGenerator.generatorName)
     @GenericGenerator(name = IdGenerator.generatorName, strategy = "com.client.service.IdGenerator")
-    public String getId() {
+    @Type(type = "uuid-binary")
+    @Column(length = 16)
+    public UUID getId() {
         return Id;
     }
 
-    public void setId(String id) {
+    public void setId(UUID id) {
         Id = id;
     }
 
@@ -101,11 +116,13 @@ public class Trade implements Serializable {
         this.price = price;
     }
 
-    public String getStatus() {
+    @Convert(converter = TradeStatusConverter.class)
+    @Column(length = 1)
+    public TradeStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(TradeStatus status) {
         this.status = status;
     }
 
@@ -125,10 +142,25 @@ public class Trade implements Serializable {
         this.timeStamp = timeStamp;
     }
 
+    /**
+     * Idempotency key given by the client on submission, taken from the
+     * request header and never from the body
+     */
+    @Column(length = 64)
+    @JsonProperty(access = Access.READ_ONLY)
+    public String getClientOrderId() {
+        return clientOrderId;
+    }
+
+    public void setClientOrderId(String clientOrderId) {
+        this.clientOrderId = clientOrderId;
+    }
+
     @Override
     public String toString() {
         return "Trade [Id=" + Id + ", price=" + price + ", quantity=" + quantity + ", reason=" + reason + ", side="
-                + side + ", status=" + status + ", symbol=" + symbol + ", timeStamp=" + timeStamp + "]";
+                + side + ", status=" + status + ", symbol=" + symbol + ", timeStamp=" + timeStamp + ", clientOrderId="
+                + clientOrderId + "]";
     }
 
     @Override
@@ -143,6 +175,7 @@ public class Trade implements Serializable {
         result = prime * result + ((status == null) ? 0 : status.hashCode());
         result = prime * result + ((symbol == null) ? 0 : symbol.hashCode());
         result = prime * result + ((timeStamp == null) ? 0 : timeStamp.hashCode());
+        result = prime * result + ((clientOrderId == null) ? 0 : clientOrderId.hashCode());
         return result;
     }
 
@@ -174,10 +207,7 @@ public class Trade implements Serializable {
             return false;
         if (side != other.side)
             return false;
-        if (status == null) {
-            if (other.status != null)
-                return false;
-        } else if (!status.equals(other.status))
+        if (status != other.status)
             return false;
         if (symbol == null) {
             if (other.symbol != null)
@@ -189,6 +219,11 @@ public class Trade implements Serializable {
                 return false;
         } else if (!timeStamp.equals(other.timeStamp))
             return false;
+        if (clientOrderId == null) {
+            if (other.clientOrderId != null)
+                return false;
+        } else if (!clientOrderId.equals(other.clientOrderId))
+            return false;
         return true;
     }
 
@@ -0,0 +1,72 @@
+package com.client.entity;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Type;
+
+/**
+ * Entity class to represent the trade_outbox table in Database.
+ * Every new trade gets an entry in the same transaction as the trade itself,
+ * removed once the TradeOutboxRelay handed the trade to the broker.
+ */
+@Entity
+@Table(name = "trade_outbox")
+public class TradeOutbox {
+
+    private Long seq;
+    private UUID tradeId;
+    private Date createdAt;
+
+    public TradeOutbox() {
+    }
+
+    public TradeOutbox(UUID tradeId, Date createdAt) {
+        this.tradeId = tradeId;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Increasing sequence of the entries, the relay order and checkpoint
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    @Type(type = "uuid-binary")
+    @Column(length = 16, nullable = false)
+    public UUID getTradeId() {
+        return tradeId;
+    }
+
+    public void setTradeId(UUID tradeId) {
+        this.tradeId = tradeId;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeOutbox [seq=" + seq + ", tradeId=" + tradeId + ", createdAt=" + createdAt + "]";
+    }
+
+}
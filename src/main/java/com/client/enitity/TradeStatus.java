@@ -0,0 +1,70 @@
+package com.client.entity;
+
+/**
+ * Status of a Trade, stored as a single character code.
+ * A trade is created PENDING_EXECUTION and moves once to either
+ * EXECUTED or NOT_EXECUTED, which are final.
+ */
+public enum TradeStatus {
+
+    PENDING_EXECUTION('P'),
+    EXECUTED('E'),
+    NOT_EXECUTED('N');
+
+    private final char code;
+
+    TradeStatus(char code) {
+        this.code = code;
+    }
+
+    /**
+     * @return code of the status in the database
+     */
+    public char getCode() {
+        return code;
+    }
+
+    /**
+     * @return true for the final statuses EXECUTED and NOT_EXECUTED
+     */
+    public boolean isTerminal() {
+        return this != PENDING_EXECUTION;
+    }
+
+    /**
+     * Method to check whether a trade in this status can move to the given one.
+     * A pending trade moves to EXECUTED or NOT_EXECUTED. PENDING_EXECUTION
+     * again is not a transition, the trade keeps the pending status it was
+     * registered with. The final statuses never change.
+     * 
+     * @param next new status
+     * @return true if the transition is allowed
+     */
+    public boolean canTransitionTo(TradeStatus next) {
+        switch (this) {
+        case PENDING_EXECUTION:
+            return next == EXECUTED || next == NOT_EXECUTED;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Method to get the status of a database code
+     * 
+     * @param code status code
+     * @return TradeStatus
+     */
+    public static TradeStatus fromCode(char code) {
+        switch (code) {
+        case 'P':
+            return PENDING_EXECUTION;
+        case 'E':
+            return EXECUTED;
+        case 'N':
+            return NOT_EXECUTED;
+        default:
+            throw new IllegalArgumentException("Unknown trade status code " + code);
+        }
+    }
+}
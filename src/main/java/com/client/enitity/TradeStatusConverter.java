@@ -0,0 +1,21 @@
+package com.client.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Converter storing the TradeStatus as its single character code
+ */
+@Converter(autoApply = true)
+public class TradeStatusConverter implements AttributeConverter<TradeStatus, Character> {
+
+    @Override
+    public Character convertToDatabaseColumn(TradeStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public TradeStatus convertToEntityAttribute(Character code) {
+        return code == null ? null : TradeStatus.fromCode(code);
+    }
+}
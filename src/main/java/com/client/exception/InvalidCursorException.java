@@ -0,0 +1,16 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the malformed pagination cursor
+ * with status Code 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,16 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the blank or too long Idempotency-Key
+ * headers with status Code 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,16 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the status subscriptions without trade ids
+ * or with more trade ids than allowed, with status Code 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSubscriptionException extends RuntimeException {
+
+    public InvalidSubscriptionException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,16 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the trade queries with unknown fields
+ * or an empty time range, with status Code 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidTradeQueryException extends RuntimeException {
+
+    public InvalidTradeQueryException(String msg) {
+        super(msg);
+    }
+}
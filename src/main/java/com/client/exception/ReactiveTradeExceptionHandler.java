@@ -0,0 +1,51 @@
+package com.client.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * ExceptionHandler class to handle the response for validation errors
+ * and rejected trades of the reactive profile
+ */
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveTradeExceptionHandler {
+
+        /**
+         * Seconds a rejected client should wait before retrying
+         */
+        private static final String RETRY_AFTER_SECONDS = "1";
+
+        @ExceptionHandler(WebExchangeBindException.class)
+        protected ResponseEntity<ErrorModel> handleBindException(WebExchangeBindException ex) {
+                FieldError fieldError = ex.getBindingResult().getFieldError();
+                ErrorModel error = new ErrorModel(HttpStatus.BAD_REQUEST,
+                                fieldError == null ? TradeValidArgExceptionHandler.DEFAULT_ERROR_MESSAGE
+                                                : fieldError.getField() + " " + fieldError.getDefaultMessage());
+
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(ServerWebInputException.class)
+        protected ResponseEntity<ErrorModel> handleInputException(ServerWebInputException ex) {
+                ErrorModel error = new ErrorModel(HttpStatus.BAD_REQUEST, ex.getReason());
+
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(TradeRejectedException.class)
+        protected ResponseEntity<ErrorModel> handleTradeRejected(TradeRejectedException ex) {
+                ErrorModel error = new ErrorModel(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+
+                return new ResponseEntity<>(error, headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+}
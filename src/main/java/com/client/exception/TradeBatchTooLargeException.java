@@ -0,0 +1,16 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the batch submissions with more trades
+ * than allowed, with status Code 413
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class TradeBatchTooLargeException extends RuntimeException {
+
+    public TradeBatchTooLargeException(String msg) {
+        super(msg);
+    }
+}
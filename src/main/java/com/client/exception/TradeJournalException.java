@@ -0,0 +1,17 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the trades which could not be written
+ * to the trade journal, with status Code 503
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TradeJournalException extends RuntimeException {
+    public static final String DEFAULT_ERROR_MESSAGE = "Trade journal is not available, retry later.";
+
+    public TradeJournalException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
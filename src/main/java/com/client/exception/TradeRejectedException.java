@@ -0,0 +1,17 @@
+package com.client.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception class to handle the trades rejected because the
+ * broker dispatch pipeline is saturated, with status Code 503
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TradeRejectedException extends RuntimeException {
+    public static final String DEFAULT_ERROR_MESSAGE = "Broker dispatch queue is full, retry later.";
+
+    public TradeRejectedException(String msg) {
+        super(msg);
+    }
+}
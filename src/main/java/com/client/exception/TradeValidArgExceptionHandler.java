@@ -1,11 +1,13 @@
 package com.client.exception;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
@@ -15,9 +17,15 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
  * 
  */
 @ControllerAdvice
+@Profile("!reactive")
 public class TradeValidArgExceptionHandler extends ResponseEntityExceptionHandler {
         public static final String DEFAULT_ERROR_MESSAGE = "Invalid Input.";
 
+        /**
+         * Seconds a rejected client should wait before retrying
+         */
+        private static final String RETRY_AFTER_SECONDS = "1";
+
         @Override
         protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
                         HttpHeaders headers, HttpStatus status, WebRequest request) {
@@ -35,4 +43,13 @@ public class TradeValidArgExceptionHandler extends ResponseEntityExceptionHandle
 
                 return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         }
+
+        @ExceptionHandler(TradeRejectedException.class)
+        protected ResponseEntity<Object> handleTradeRejected(TradeRejectedException ex) {
+                ErrorModel error = new ErrorModel(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+
+                return new ResponseEntity<>(error, headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
 }
@@ -0,0 +1,465 @@
+package com.client.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.client.entity.Trade;
+import com.client.exception.TradeJournalException;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Write ahead journal of the new trades and their status transitions, kept
+ * in memory mapped segment files. Every record is written as its length,
+ * the CRC32 of its payload and the payload, at a position of the journal
+ * which grows across the segments. A record which does not fit in the rest
+ * of a segment starts the next one, the zero length left behind marks the
+ * end of the segment.
+ * Appends only copy the record into the mapping, a flusher thread forces
+ * whatever was appended meanwhile to the disk at once (group commit) and
+ * wakes up those waiting for their records to be durable.
+ * The position the TradeJournalProjector applied to the database is kept in
+ * a checkpoint file, the segments before it are deleted. On startup the
+ * records after the checkpoint are scanned and the journal continues after
+ * the last complete one.
+ */
+@Component
+public class TradeJournal {
+
+    private static final Logger logger = LogManager.getLogger(TradeJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * Length and CRC32 in front of every payload
+     */
+    private static final int HEADER_BYTES = 8;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final long flushNanos;
+
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition appended = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private volatile long writePosition;
+    private volatile long durablePosition;
+    private volatile long checkpoint;
+    private volatile RuntimeException failure;
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public TradeJournal(@Value("${trade.journal.enabled:false}") boolean enabled,
+            @Value("${trade.journal.dir:journal}") String directory,
+            @Value("${trade.journal.segment-bytes:67108864}") int segmentBytes,
+            @Value("${trade.journal.fsync:true}") boolean fsync,
+            @Value("${trade.journal.flush-millis:10}") long flushMillis) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+    }
+
+    /**
+     * @return true if the trades are journaled instead of saved directly
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method to open the segments, recover the end of the journal and start
+     * the flusher
+     * 
+     * @throws IOException
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled)
+            return;
+        Files.createDirectories(directory);
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile))
+            checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), map(file));
+            }
+        }
+        if (segments.isEmpty() || segments.lastKey() + segments.lastEntry().getValue().capacity() <= checkpoint)
+            segments.put(checkpoint, map(segmentFile(checkpoint)));
+
+        long end = Math.max(checkpoint, segments.firstKey());
+        while (true) {
+            long next = next(end);
+            if (next < 0)
+                break;
+            end = next;
+        }
+        recover(end);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "trade-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Opened trade journal at " + end + ", " + (end - checkpoint) + " bytes after the checkpoint");
+    }
+
+    /**
+     * Method to stop the flusher once the appended records are forced to the disk
+     * 
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (flusher == null)
+            return;
+        running = false;
+        signal(appended);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Method to append a new trade
+     * 
+     * @param trade Trade with its id assigned
+     * @return journal position following the record
+     */
+    public long append(Trade trade) {
+        return write(TradeJournalCodec.encode(trade));
+    }
+
+    /**
+     * Method to append the new trades, next to each other
+     * 
+     * @param trades Trades with their ids assigned
+     * @return journal position following the last record
+     */
+    public long append(List<Trade> trades) {
+        ByteBuffer[] payloads = new ByteBuffer[trades.size()];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = TradeJournalCodec.encode(trades.get(i));
+        }
+        return write(payloads);
+    }
+
+    /**
+     * Method to append a status transition, durable with the next group commit
+     * 
+     * @param update TradeStatusUpdate
+     * @return journal position following the record
+     */
+    public long append(TradeStatusUpdate update) {
+        return write(TradeJournalCodec.encode(update));
+    }
+
+    /**
+     * Method to wait until the records up to the position are durable
+     * 
+     * @param position journal position returned by an append
+     * @throws TradeJournalException when the journal failed or the wait was interrupted
+     */
+    public void awaitDurable(long position) {
+        if (durablePosition >= position)
+            return;
+        flushLock.lock();
+        try {
+            appended.signal();
+            while (durablePosition < position) {
+                checkFailure();
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradeJournalException(TradeJournalException.DEFAULT_ERROR_MESSAGE, e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Method to wait for durable records after the position, for the projector
+     * 
+     * @param position journal position already read
+     * @param timeout  maximum time to wait
+     * @param unit     unit of the timeout
+     * @throws InterruptedException
+     */
+    public void awaitRecords(long position, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        flushLock.lock();
+        try {
+            while (durablePosition <= position && nanos > 0) {
+                nanos = flushed.awaitNanos(nanos);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Method to read the durable records from the position
+     * 
+     * @param position   journal position to read from
+     * @param maxRecords maximum number of records
+     * @param entries    receives the records
+     * @return journal position following the last record read
+     */
+    public long read(long position, int maxRecords, List<TradeJournalEntry> entries) {
+        long limit = durablePosition;
+        while (entries.size() < maxRecords && position < limit) {
+            Map.Entry<Long, MappedByteBuffer> current = segments.floorEntry(position);
+            ByteBuffer buffer = current.getValue().duplicate();
+            int offset = (int) (position - current.getKey());
+            int length = offset + HEADER_BYTES <= buffer.capacity() ? buffer.getInt(offset) : 0;
+            if (length == 0) {
+                position = current.getKey() + buffer.capacity();
+                continue;
+            }
+            buffer.position(offset + HEADER_BYTES).limit(offset + HEADER_BYTES + length);
+            position += HEADER_BYTES + length;
+            entries.add(new TradeJournalEntry(position, TradeJournalCodec.decode(buffer)));
+        }
+        return position;
+    }
+
+    /**
+     * Method to record the position applied to the database and delete the
+     * segments before it
+     * 
+     * @param position journal position following the applied records
+     */
+    public void checkpoint(long position) {
+        ByteBuffer bytes = ByteBuffer.allocate(Long.BYTES).putLong(position).flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.write(bytes, 0);
+            if (fsync)
+                channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkpoint = position;
+
+        Map.Entry<Long, MappedByteBuffer> first;
+        while ((first = segments.firstEntry()) != null && first.getKey() + first.getValue().capacity() <= position
+                && first.getKey() < segments.lastKey()) {
+            segments.remove(first.getKey());
+            try {
+                Files.deleteIfExists(segmentFile(first.getKey()));
+            } catch (IOException e) {
+                logger.error("Exception while deleting the journal segment " + first.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * @return journal position applied to the database
+     */
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @return journal position up to which the records are durable
+     */
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    /**
+     * @return bytes durable in the journal and not applied to the database yet
+     */
+    public long getLag() {
+        return durablePosition - checkpoint;
+    }
+
+    private long write(ByteBuffer... payloads) {
+        checkFailure();
+        CRC32 crc = new CRC32();
+        int[] checksums = new int[payloads.length];
+        for (int i = 0; i < payloads.length; i++) {
+            if (HEADER_BYTES + payloads[i].remaining() > segmentBytes)
+                throw new IllegalArgumentException("journal record larger than a segment");
+            crc.reset();
+            crc.update(payloads[i].duplicate());
+            checksums[i] = (int) crc.getValue();
+        }
+        appendLock.lock();
+        try {
+            for (int i = 0; i < payloads.length; i++) {
+                ByteBuffer payload = payloads[i];
+                if (segment.remaining() < HEADER_BYTES + payload.remaining())
+                    roll();
+                segment.putInt(payload.remaining()).putInt(checksums[i]).put(payload);
+            }
+            long position = segmentBase + segment.position();
+            writePosition = position;
+            return position;
+        } catch (IOException e) {
+            throw new TradeJournalException(TradeJournalException.DEFAULT_ERROR_MESSAGE, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Starts the next segment, the rest of the current one stays zero
+     */
+    private void roll() throws IOException {
+        long base = segmentBase + segment.capacity();
+        MappedByteBuffer next = map(segmentFile(base));
+        segments.put(base, next);
+        segment = next;
+        segmentBase = base;
+    }
+
+    /**
+     * Continues the journal at the end found on startup. The rest of its
+     * segment is cleared of a torn record, later segments can not hold
+     * complete records and are deleted.
+     */
+    private void recover(long end) throws IOException {
+        Map.Entry<Long, MappedByteBuffer> current = segments.floorEntry(end);
+        segmentBase = current.getKey();
+        segment = current.getValue();
+        segment.position((int) (end - segmentBase));
+        ByteBuffer rest = segment.duplicate();
+        while (rest.hasRemaining()) {
+            rest.put((byte) 0);
+        }
+        for (Long base : List.copyOf(segments.tailMap(segmentBase, false).keySet())) {
+            logger.warn("Deleting journal segment " + base + " after the end of the journal " + end);
+            segments.remove(base);
+            Files.deleteIfExists(segmentFile(base));
+        }
+        segment.force();
+        writePosition = end;
+        durablePosition = end;
+    }
+
+    /**
+     * Validates the record at the position while recovering
+     * 
+     * @return journal position following the record, or -1 at the end of the journal
+     */
+    private long next(long position) {
+        Map.Entry<Long, MappedByteBuffer> current = segments.floorEntry(position);
+        ByteBuffer buffer = current.getValue().duplicate();
+        int offset = (int) (position - current.getKey());
+        int length = offset + HEADER_BYTES <= buffer.capacity() ? buffer.getInt(offset) : 0;
+        if (length == 0) {
+            long nextBase = current.getKey() + buffer.capacity();
+            return segments.containsKey(nextBase) && position < nextBase ? nextBase : -1;
+        }
+        if (length < 0 || offset + HEADER_BYTES + length > buffer.capacity())
+            return -1;
+        buffer.position(offset + HEADER_BYTES).limit(offset + HEADER_BYTES + length);
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4))
+            return -1;
+        return position + HEADER_BYTES + length;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target = writePosition;
+            if (target == durablePosition) {
+                if (!running)
+                    return;
+                flushLock.lock();
+                try {
+                    if (writePosition == durablePosition)
+                        appended.awaitNanos(flushNanos);
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    flushLock.unlock();
+                }
+                continue;
+            }
+            try {
+                if (fsync) {
+                    for (MappedByteBuffer buffer : segments.subMap(segments.floorKey(durablePosition), true, target,
+                            true).values()) {
+                        buffer.force();
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Exception while forcing the trade journal to the disk", e);
+                failure = e;
+            }
+            flushLock.lock();
+            try {
+                if (failure == null)
+                    durablePosition = target;
+                flushed.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+            if (failure != null)
+                return;
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null)
+            throw new TradeJournalException(TradeJournalException.DEFAULT_ERROR_MESSAGE, failure);
+    }
+
+    private void signal(Condition condition) {
+        flushLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d", base) + SEGMENT_SUFFIX);
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), segmentBytes);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
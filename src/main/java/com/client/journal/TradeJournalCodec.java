@@ -0,0 +1,130 @@
+package com.client.journal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Binary layout of the journal records. Every payload starts with its type,
+ * a new trade or a status transition, strings are written as their UTF-8
+ * length and bytes with -1 for null.
+ */
+final class TradeJournalCodec {
+
+    static final byte TRADE = 'T';
+    static final byte STATUS = 'S';
+
+    private static final BrokerTradeSide[] SIDES = BrokerTradeSide.values();
+
+    private TradeJournalCodec() {
+    }
+
+    static ByteBuffer encode(Trade trade) {
+        byte[] unscaled = trade.getPrice().unscaledValue().toByteArray();
+        byte[] symbol = bytes(trade.getSymbol());
+        byte[] reason = bytes(trade.getReason());
+        byte[] clientOrderId = bytes(trade.getClientOrderId());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 16 + 8 + 1 + 4 + 2 + unscaled.length + 1 + 8
+                + size(symbol) + size(reason) + size(clientOrderId));
+        buffer.put(TRADE);
+        putId(buffer, trade.getId());
+        buffer.putLong(trade.getQuantity());
+        buffer.put((byte) trade.getSide().ordinal());
+        buffer.putInt(trade.getPrice().scale());
+        buffer.putShort((short) unscaled.length);
+        buffer.put(unscaled);
+        buffer.put((byte) trade.getStatus().getCode());
+        buffer.putLong(trade.getTimeStamp().getTime());
+        put(buffer, symbol);
+        put(buffer, reason);
+        put(buffer, clientOrderId);
+        return buffer.flip();
+    }
+
+    static ByteBuffer encode(TradeStatusUpdate update) {
+        byte[] reason = bytes(update.getReason());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 16 + 1 + 8 + size(reason));
+        buffer.put(STATUS);
+        putId(buffer, update.getId());
+        buffer.put((byte) update.getStatus().getCode());
+        buffer.putLong(update.getTimeStamp().getTime());
+        put(buffer, reason);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes the payload at the position of the buffer
+     * 
+     * @return Trade or TradeStatusUpdate
+     * @throws IllegalStateException on an unknown record type
+     */
+    static Object decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == TRADE) {
+            UUID id = getId(buffer);
+            long quantity = buffer.getLong();
+            BrokerTradeSide side = SIDES[buffer.get()];
+            int scale = buffer.getInt();
+            byte[] unscaled = new byte[buffer.getShort()];
+            buffer.get(unscaled);
+            TradeStatus status = TradeStatus.fromCode((char) buffer.get());
+            Date timeStamp = new Date(buffer.getLong());
+            String symbol = getString(buffer);
+            String reason = getString(buffer);
+            Trade trade = new Trade(id, quantity, symbol, side, new BigDecimal(new BigInteger(unscaled), scale),
+                    status, reason, timeStamp);
+            trade.setClientOrderId(getString(buffer));
+            return trade;
+        }
+        if (type == STATUS) {
+            UUID id = getId(buffer);
+            TradeStatus status = TradeStatus.fromCode((char) buffer.get());
+            Date timeStamp = new Date(buffer.getLong());
+            return new TradeStatusUpdate(id, status, getString(buffer), timeStamp);
+        }
+        throw new IllegalStateException("Unknown journal record type " + type);
+    }
+
+    private static void putId(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getId(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int size(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.client.journal;
+
+import com.client.entity.Trade;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Record read from the trade journal, either a new trade or a status
+ * transition, with the journal position following it
+ */
+public class TradeJournalEntry {
+
+    private final long nextPosition;
+    private final Trade trade;
+    private final TradeStatusUpdate update;
+
+    TradeJournalEntry(long nextPosition, Object record) {
+        this.nextPosition = nextPosition;
+        this.trade = record instanceof Trade ? (Trade) record : null;
+        this.update = record instanceof TradeStatusUpdate ? (TradeStatusUpdate) record : null;
+    }
+
+    public long getNextPosition() {
+        return nextPosition;
+    }
+
+    /**
+     * @return new Trade or null for a status transition
+     */
+    public Trade getTrade() {
+        return trade;
+    }
+
+    /**
+     * @return status transition or null for a new trade
+     */
+    public TradeStatusUpdate getUpdate() {
+        return update;
+    }
+}
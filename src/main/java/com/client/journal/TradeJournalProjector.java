@@ -0,0 +1,211 @@
+package com.client.journal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.client.entity.Trade;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeJdbcRepository;
+import com.client.service.TradeOutboxRelay;
+import com.client.service.TradeThreads;
+
+/**
+ * Projector applying the durable records of the trade journal to the trade
+ * table. The records are read in journal order in batches, the new trades
+ * are inserted along with their outbox entries and then the status
+ * transitions are applied, all in one transaction, before the journal is
+ * checkpointed. On startup the records after the checkpoint are applied
+ * before the application takes requests, skipping the trades a batch
+ * interrupted by the crash had inserted already. The replay is started by
+ * TradeService.run, once the schema is created and before the pending
+ * trades are registered and the outbox relay starts.
+ * A batch following a failure is applied like a replay, as the failed one
+ * may have been committed before it failed.
+ */
+@Component
+public class TradeJournalProjector {
+
+    private static final Logger logger = LogManager.getLogger(TradeJournalProjector.class);
+
+    private final TradeJournal tradeJournal;
+    private final TradeJdbcRepository tradeJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TradeOutboxRelay tradeOutboxRelay;
+    private final int batchSize;
+    private final long pollMillis;
+
+    private volatile boolean running;
+    private Thread projectorThread;
+    private long checkpoint;
+    private Consumer<Trade> dropped;
+
+    @Autowired
+    public TradeJournalProjector(TradeJournal tradeJournal, TradeJdbcRepository tradeJdbcRepository,
+            TransactionTemplate transactionTemplate, TradeOutboxRelay tradeOutboxRelay,
+            @Value("${trade.journal.projector.batch-size:1000}") int batchSize,
+            @Value("${trade.journal.projector.poll-millis:50}") long pollMillis) {
+        this.tradeJournal = tradeJournal;
+        this.tradeJdbcRepository = tradeJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tradeOutboxRelay = tradeOutboxRelay;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Method to replay the journal tail left by the previous run and start
+     * projecting the new records
+     * 
+     * @param dropped Consumer of the trades of this run which are dropped as
+     *                their client order id is taken
+     */
+    public synchronized void start(Consumer<Trade> dropped) {
+        if (!tradeJournal.isEnabled() || projectorThread != null)
+            return;
+        this.dropped = dropped;
+        checkpoint = tradeJournal.getCheckpoint();
+        int replayed = 0;
+        int projected;
+        while ((projected = project(true, false)) > 0) {
+            replayed += projected;
+        }
+        logger.info("Replayed " + replayed + " trade journal records");
+
+        running = true;
+        projectorThread = TradeThreads.factory("trade-journal-projector", false).newThread(this::projectLoop);
+        projectorThread.setDaemon(true);
+        projectorThread.start();
+    }
+
+    /**
+     * Method to stop projecting once the durable records are applied
+     * 
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (projectorThread != null)
+            projectorThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void projectLoop() {
+        boolean replay = false;
+        while (true) {
+            try {
+                int projected = project(replay, true);
+                replay = false;
+                if (projected > 0)
+                    continue;
+                if (!running)
+                    return;
+                tradeJournal.awaitRecords(checkpoint, pollMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Exception while projecting the trade journal after " + checkpoint, e);
+                replay = true;
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the next batch of records and checkpoints the journal
+     * 
+     * @param replay true if the trades may have been inserted already
+     * @param live   true if the trades were registered by this run
+     * @return number of applied records
+     */
+    private int project(boolean replay, boolean live) {
+        List<TradeJournalEntry> entries = new ArrayList<>(batchSize);
+        long next = tradeJournal.read(checkpoint, batchSize, entries);
+        if (entries.isEmpty())
+            return 0;
+
+        List<Trade> trades = new ArrayList<>();
+        Map<UUID, TradeStatusUpdate> updates = new LinkedHashMap<>();
+        for (TradeJournalEntry entry : entries) {
+            // only the first transition of a pending trade is applied, like in sequence
+            if (entry.getTrade() != null)
+                trades.add(entry.getTrade());
+            else
+                updates.putIfAbsent(entry.getUpdate().getId(), entry.getUpdate());
+        }
+        if (replay && !trades.isEmpty()) {
+            List<UUID> ids = new ArrayList<>(trades.size());
+            trades.forEach(trade -> ids.add(trade.getId()));
+            Set<UUID> existing = tradeJdbcRepository.findExistingIds(ids);
+            trades.removeIf(trade -> existing.contains(trade.getId()));
+        }
+        try {
+            apply(trades, updates);
+        } catch (DataIntegrityViolationException e) {
+            applyOneByOne(trades, updates, live);
+        }
+
+        tradeJournal.checkpoint(next);
+        checkpoint = next;
+        if (!trades.isEmpty())
+            tradeOutboxRelay.wakeUp();
+        return entries.size();
+    }
+
+    private void apply(List<Trade> trades, Map<UUID, TradeStatusUpdate> updates) {
+        transactionTemplate.execute(status -> {
+            if (!trades.isEmpty()) {
+                tradeJdbcRepository.insertTrades(trades);
+                tradeJdbcRepository.insertOutbox(trades);
+            }
+            if (!updates.isEmpty())
+                tradeJdbcRepository.updateStatuses(new ArrayList<>(updates.values()));
+            return null;
+        });
+    }
+
+    /**
+     * Applies a batch a trade violated a constraint of one by one, dropping
+     * the trades which repeat a client order id of another trade. Any other
+     * violation fails the batch, which is then applied again as a replay.
+     * The registration of a dropped trade of this run is undone, its outbox
+     * entry was never saved.
+     */
+    private void applyOneByOne(List<Trade> trades, Map<UUID, TradeStatusUpdate> updates, boolean live) {
+        for (Trade trade : trades) {
+            try {
+                apply(Collections.singletonList(trade), Collections.emptyMap());
+            } catch (DataIntegrityViolationException e) {
+                if (!tradeJdbcRepository.isClientOrderIdTaken(trade.getClientOrderId(), trade.getId()))
+                    throw e;
+                logger.error("Dropping journaled trade " + trade.getId() + " of client order id "
+                        + trade.getClientOrderId() + " which is taken", e);
+                if (live) {
+                    tradeOutboxRelay.release(1);
+                    dropped.accept(trade);
+                }
+            }
+        }
+        apply(Collections.emptyList(), updates);
+    }
+}
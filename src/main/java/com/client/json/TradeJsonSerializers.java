@@ -0,0 +1,187 @@
+package com.client.json;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.UUID;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.TradeStatus;
+import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+/**
+ * Hand written serializers of the responses, registered on the
+ * application ObjectMapper. They write the same JSON as the reflective
+ * serialization, with the field names and enum values encoded once, the
+ * time stamp formatted without a date format instance and the status
+ * payloads written from their cached bytes.
+ */
+@JsonComponent
+public class TradeJsonSerializers {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString SYMBOL = new SerializedString("symbol");
+    private static final SerializedString SIDE = new SerializedString("side");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString REASON = new SerializedString("reason");
+    private static final SerializedString TIME_STAMP = new SerializedString("timeStamp");
+    private static final SerializedString CLIENT_ORDER_ID = new SerializedString("clientOrderId");
+
+    /**
+     * Start of the Gregorian calendar, the default date format writes older dates in the Julian one
+     */
+    private static final long GREGORIAN_CUTOVER_MILLIS = -12219292800000L;
+
+    /**
+     * Last millisecond of the year 9999
+     */
+    private static final long MAX_FOUR_DIGIT_YEAR_MILLIS = 253402300799999L;
+
+    private static final SerializedString[] SIDES = names(BrokerTradeSide.values());
+    private static final SerializedString[] STATUSES = names(TradeStatus.values());
+
+    /**
+     * Whole {"status":...} payload of every status, plus the null one
+     */
+    private static final SerializedString[] STATUS_PAYLOADS = new SerializedString[STATUSES.length + 1];
+
+    static {
+        for (TradeStatus status : TradeStatus.values()) {
+            STATUS_PAYLOADS[status.ordinal()] = new SerializedString("{\"status\":\"" + status.name() + "\"}");
+        }
+        STATUS_PAYLOADS[STATUSES.length] = new SerializedString("{\"status\":null}");
+    }
+
+    private static SerializedString[] names(Enum<?>[] values) {
+        SerializedString[] names = new SerializedString[values.length];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = new SerializedString(value.name());
+        }
+        return names;
+    }
+
+    /**
+     * Serializer of the Trade entity and the TradeDTO, in the order of the
+     * fields of the entity
+     */
+    public static class TradeSerializer extends StdSerializer<TradeView> {
+
+        private static final long serialVersionUID = 1L;
+
+        public TradeSerializer() {
+            super(TradeView.class);
+        }
+
+        @Override
+        public void serialize(TradeView trade, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(trade);
+            gen.writeFieldName(ID);
+            UUID id = trade.getId();
+            if (id == null)
+                gen.writeNull();
+            else
+                gen.writeString(id.toString());
+            gen.writeFieldName(QUANTITY);
+            gen.writeNumber(trade.getQuantity());
+            gen.writeFieldName(SYMBOL);
+            gen.writeString(trade.getSymbol());
+            gen.writeFieldName(SIDE);
+            writeEnum(gen, SIDES, trade.getSide());
+            gen.writeFieldName(PRICE);
+            gen.writeNumber(trade.getPrice());
+            gen.writeFieldName(STATUS);
+            writeEnum(gen, STATUSES, trade.getStatus());
+            gen.writeFieldName(REASON);
+            gen.writeString(trade.getReason());
+            gen.writeFieldName(TIME_STAMP);
+            writeDate(gen, provider, trade.getTimeStamp());
+            gen.writeFieldName(CLIENT_ORDER_ID);
+            gen.writeString(trade.getClientOrderId());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializer of the StatusDTO from the cached payloads
+     */
+    public static class StatusSerializer extends StdSerializer<StatusDTO> {
+
+        private static final long serialVersionUID = 1L;
+
+        public StatusSerializer() {
+            super(StatusDTO.class);
+        }
+
+        @Override
+        public void serialize(StatusDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            TradeStatus status = value.getStatus();
+            gen.writeRawValue(STATUS_PAYLOADS[status == null ? STATUSES.length : status.ordinal()]);
+        }
+    }
+
+    private static void writeEnum(JsonGenerator gen, SerializableString[] names, Enum<?> value) throws IOException {
+        if (value == null)
+            gen.writeNull();
+        else
+            gen.writeString(names[value.ordinal()]);
+    }
+
+    /**
+     * Writes the date like the default StdDateFormat in UTC,
+     * "yyyy-MM-dd'T'HH:mm:ss.SSS+00:00", any other date settings of the
+     * mapper and the dates outside the Gregorian years 1583 to 9999 are left
+     * to it
+     */
+    private static void writeDate(JsonGenerator gen, SerializerProvider provider, Date date) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+            return;
+        }
+        long millis = date.getTime();
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                || provider.getConfig().hasExplicitTimeZone()
+                || provider.getConfig().getDateFormat().getClass() != StdDateFormat.class
+                || millis < GREGORIAN_CUTOVER_MILLIS || millis > MAX_FOUR_DIGIT_YEAR_MILLIS) {
+            provider.defaultSerializeDateValue(date, gen);
+            return;
+        }
+        LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        char[] chars = new char[29];
+        digits(chars, 0, time.getYear(), 4);
+        chars[4] = '-';
+        digits(chars, 5, time.getMonthValue(), 2);
+        chars[7] = '-';
+        digits(chars, 8, time.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        digits(chars, 11, time.getHour(), 2);
+        chars[13] = ':';
+        digits(chars, 14, time.getMinute(), 2);
+        chars[16] = ':';
+        digits(chars, 17, time.getSecond(), 2);
+        chars[19] = '.';
+        digits(chars, 20, time.getNano() / 1_000_000, 3);
+        "+00:00".getChars(0, 6, chars, 23);
+        gen.writeString(chars, 0, chars.length);
+    }
+
+    private static void digits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.client.pojo;
+
+import java.util.UUID;
+
+/**
+ * Class to represent the outcome of a single trade of a batch submission,
+ * either the id and status location of the created trade or the error
+ */
+public class BatchTradeResult {
+
+    private final int index;
+    private final UUID id;
+    private String location;
+    private String error;
+
+    public BatchTradeResult(int index, UUID id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+}
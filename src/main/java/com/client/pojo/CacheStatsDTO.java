@@ -0,0 +1,36 @@
+package com.client.pojo;
+
+/**
+ * Class to represent the counters of an in memory cache
+ */
+public class CacheStatsDTO {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long size;
+
+    public CacheStatsDTO(long hits, long misses, long evictions, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+}
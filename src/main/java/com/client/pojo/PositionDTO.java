@@ -0,0 +1,29 @@
+package com.client.pojo;
+
+import java.util.Map;
+
+import com.client.entity.TradeStatus;
+
+/**
+ * Class to represent the position of a symbol, with the totals of its
+ * trades per status
+ */
+public class PositionDTO {
+
+    private final String symbol;
+    private final Map<TradeStatus, StatusTotalsDTO> statuses;
+
+    public PositionDTO(String symbol, Map<TradeStatus, StatusTotalsDTO> statuses) {
+        this.symbol = symbol;
+        this.statuses = statuses;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public Map<TradeStatus, StatusTotalsDTO> getStatuses() {
+        return statuses;
+    }
+
+}
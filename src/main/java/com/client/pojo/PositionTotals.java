@@ -0,0 +1,55 @@
+package com.client.pojo;
+
+import java.math.BigDecimal;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.TradeStatus;
+
+/**
+ * Class to represent the totals of the trades of a symbol, status and side
+ * as aggregated by the database
+ */
+public class PositionTotals {
+
+    private final String symbol;
+    private final TradeStatus status;
+    private final BrokerTradeSide side;
+    private final long count;
+    private final long quantity;
+    private final BigDecimal notional;
+
+    public PositionTotals(String symbol, TradeStatus status, BrokerTradeSide side, Long count, Long quantity,
+            BigDecimal notional) {
+        this.symbol = symbol;
+        this.status = status;
+        this.side = side;
+        this.count = count == null ? 0 : count;
+        this.quantity = quantity == null ? 0 : quantity;
+        this.notional = notional == null ? BigDecimal.ZERO : notional;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TradeStatus getStatus() {
+        return status;
+    }
+
+    public BrokerTradeSide getSide() {
+        return side;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getNotional() {
+        return notional;
+    }
+
+}
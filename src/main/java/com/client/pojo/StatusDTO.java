@@ -1,21 +1,23 @@
 package com.client.pojo;
 
+import com.client.entity.TradeStatus;
+
 /**
  * Class to represent the Status of the Trade
  */
 public class StatusDTO {
 
-    private String status;
+    private TradeStatus status;
 
-    public StatusDTO(String status) {
+    public StatusDTO(TradeStatus status) {
         this.status = status;
     }
 
-    public String getStatus() {
+    public TradeStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(TradeStatus status) {
         this.status = status;
     }
 
@@ -0,0 +1,40 @@
+package com.client.pojo;
+
+import java.math.BigDecimal;
+
+/**
+ * Class to represent the totals of the trades of a symbol in a status.
+ * Net values count BUY trades positive and SELL trades negative, the
+ * notional is the sum of quantity x price.
+ */
+public class StatusTotalsDTO {
+
+    private final long count;
+    private final long netQuantity;
+    private final BigDecimal notional;
+    private final BigDecimal netNotional;
+
+    public StatusTotalsDTO(long count, long netQuantity, BigDecimal notional, BigDecimal netNotional) {
+        this.count = count;
+        this.netQuantity = netQuantity;
+        this.notional = notional;
+        this.netNotional = netNotional;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNetQuantity() {
+        return netQuantity;
+    }
+
+    public BigDecimal getNotional() {
+        return notional;
+    }
+
+    public BigDecimal getNetNotional() {
+        return netNotional;
+    }
+
+}
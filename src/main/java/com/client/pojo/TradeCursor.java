@@ -0,0 +1,77 @@
+package com.client.pojo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import com.client.exception.InvalidCursorException;
+
+/**
+ * Class to represent the keyset position of a Trade in the
+ * (timeStamp, id) ordering used for paginating the trades.
+ * Encoded as an opaque url safe string for the clients.
+ */
+public class TradeCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Date timeStamp;
+    private final UUID id;
+
+    public TradeCursor(Date timeStamp, UUID id) {
+        this.timeStamp = timeStamp;
+        this.id = id;
+    }
+
+    /**
+     * Method to create the cursor pointing after the given Trade
+     * 
+     * @param trade last Trade of the page
+     * @return TradeCursor
+     */
+    public static TradeCursor of(TradeView trade) {
+        return new TradeCursor(trade.getTimeStamp(), trade.getId());
+    }
+
+    /**
+     * Method to decode the cursor received from the client
+     * 
+     * @param value encoded cursor, may be null for the first page
+     * @return TradeCursor or null if no cursor is given
+     * @throws InvalidCursorException
+     */
+    public static TradeCursor decode(String value) throws InvalidCursorException {
+        if (value == null || value.isEmpty())
+            return null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int index = decoded.indexOf(SEPARATOR);
+            if (index <= 0 || index == decoded.length() - 1)
+                throw new InvalidCursorException("Invalid cursor");
+            return new TradeCursor(new Date(Long.parseLong(decoded.substring(0, index))),
+                    UUID.fromString(decoded.substring(index + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Method to encode the cursor to be sent to the client
+     * 
+     * @return encoded cursor
+     */
+    public String encode() {
+        String value = timeStamp.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date getTimeStamp() {
+        return timeStamp;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.client.pojo;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.TradeStatus;
+
+/**
+ * Class to represent a Trade read from the database by a constructor
+ * expression. It is not managed by the persistence context, so reading it
+ * takes no entity snapshot and it is never dirty checked or flushed.
+ */
+public class TradeDTO implements TradeView {
+
+    private final UUID id;
+    private final long quantity;
+    private final String symbol;
+    private final BrokerTradeSide side;
+    private final BigDecimal price;
+    private final TradeStatus status;
+    private final String reason;
+    private final Date timeStamp;
+    private final String clientOrderId;
+
+    public TradeDTO(UUID id, long quantity, String symbol, BrokerTradeSide side, BigDecimal price,
+            TradeStatus status, String reason, Date timeStamp, String clientOrderId) {
+        this.id = id;
+        this.quantity = quantity;
+        this.symbol = symbol;
+        this.side = side;
+        this.price = price;
+        this.status = status;
+        this.reason = reason;
+        this.timeStamp = timeStamp;
+        this.clientOrderId = clientOrderId;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public long getQuantity() {
+        return quantity;
+    }
+
+    @Override
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public BrokerTradeSide getSide() {
+        return side;
+    }
+
+    @Override
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public TradeStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public Date getTimeStamp() {
+        return timeStamp;
+    }
+
+    @Override
+    public String getClientOrderId() {
+        return clientOrderId;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeDTO [id=" + id + ", quantity=" + quantity + ", symbol=" + symbol + ", side=" + side
+                + ", price=" + price + ", status=" + status + ", reason=" + reason + ", timeStamp=" + timeStamp
+                + ", clientOrderId=" + clientOrderId + "]";
+    }
+
+}
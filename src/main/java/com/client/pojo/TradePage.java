@@ -0,0 +1,31 @@
+package com.client.pojo;
+
+import java.util.List;
+
+/**
+ * Class to represent a page of Trades along with the cursor
+ * to fetch the next page
+ */
+public class TradePage {
+
+    private final List<? extends TradeView> trades;
+
+    private final String nextCursor;
+
+    public TradePage(List<? extends TradeView> trades, String nextCursor) {
+        this.trades = trades;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<? extends TradeView> getTrades() {
+        return trades;
+    }
+
+    /**
+     * @return cursor of the next page or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+}
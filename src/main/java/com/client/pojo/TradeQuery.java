@@ -0,0 +1,89 @@
+package com.client.pojo;
+
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.TradeStatus;
+import com.client.exception.InvalidTradeQueryException;
+
+/**
+ * Class to represent the filters of a trade query along with the
+ * fields to be returned of every matching trade.
+ * Every filter is optional, the time range is [from, to).
+ */
+public class TradeQuery {
+
+    /**
+     * Fields which can be requested, in the order they are returned
+     */
+    public static final List<String> FIELDS = List.of("id", "quantity", "symbol", "side", "price", "status",
+            "reason", "timeStamp");
+
+    private final String symbol;
+    private final BrokerTradeSide side;
+    private final TradeStatus status;
+    private final Date from;
+    private final Date to;
+    private final Set<String> fields;
+
+    public TradeQuery(String symbol, BrokerTradeSide side, TradeStatus status, Date from, Date to,
+            List<String> fields) {
+        this.symbol = symbol;
+        this.side = side;
+        this.status = status;
+        this.from = from;
+        this.to = to;
+        this.fields = fields == null || fields.isEmpty() ? new LinkedHashSet<>(FIELDS)
+                : new LinkedHashSet<>(fields);
+    }
+
+    /**
+     * @return true when the query has a filter or returns only some of the fields
+     */
+    public boolean isFiltered() {
+        return symbol != null || side != null || status != null || from != null || to != null
+                || fields.size() != FIELDS.size();
+    }
+
+    /**
+     * Method to check the requested fields and the time range
+     * 
+     * @throws InvalidTradeQueryException
+     */
+    public void validate() throws InvalidTradeQueryException {
+        for (String field : fields) {
+            if (!FIELDS.contains(field))
+                throw new InvalidTradeQueryException("Unknown field " + field + ", expected one of " + FIELDS);
+        }
+        if (from != null && to != null && !from.before(to))
+            throw new InvalidTradeQueryException("from must be before to");
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public BrokerTradeSide getSide() {
+        return side;
+    }
+
+    public TradeStatus getStatus() {
+        return status;
+    }
+
+    public Date getFrom() {
+        return from;
+    }
+
+    public Date getTo() {
+        return to;
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+}
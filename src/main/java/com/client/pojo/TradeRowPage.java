@@ -0,0 +1,33 @@
+package com.client.pojo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to represent a page of the trades matching a TradeQuery,
+ * each one with only the requested fields, along with the cursor
+ * to fetch the next page
+ */
+public class TradeRowPage {
+
+    private final List<Map<String, Object>> rows;
+
+    private final String nextCursor;
+
+    public TradeRowPage(List<Map<String, Object>> rows, String nextCursor) {
+        this.rows = rows;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Map<String, Object>> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return cursor of the next page or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.client.pojo;
+
+import java.util.Date;
+import java.util.UUID;
+
+import com.client.entity.TradeStatus;
+
+/**
+ * Class to represent a pending change of the Trade status
+ * waiting to be written to the database
+ */
+public class TradeStatusUpdate {
+
+    private final UUID id;
+    private final TradeStatus status;
+    private final String reason;
+    private final Date timeStamp;
+
+    public TradeStatusUpdate(UUID id, TradeStatus status, String reason, Date timeStamp) {
+        this.id = id;
+        this.status = status;
+        this.reason = reason;
+        this.timeStamp = timeStamp;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public TradeStatus getStatus() {
+        return status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Date getTimeStamp() {
+        return timeStamp;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeStatusUpdate [id=" + id + ", status=" + status + ", reason=" + reason + ", timeStamp="
+                + timeStamp + "]";
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.client.pojo;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.TradeStatus;
+
+/**
+ * Read only view of a Trade, implemented by the Trade entity and by the
+ * TradeDTO projection the read end points are served from
+ */
+public interface TradeView {
+
+    UUID getId();
+
+    long getQuantity();
+
+    String getSymbol();
+
+    BrokerTradeSide getSide();
+
+    BigDecimal getPrice();
+
+    TradeStatus getStatus();
+
+    String getReason();
+
+    Date getTimeStamp();
+
+    String getClientOrderId();
+}
@@ -0,0 +1,53 @@
+package com.client.respository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.client.entity.ArchivedTrade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.PositionTotals;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Repository class to handle the DB requests of the trade archive, the id
+ * lookups the trade table misses fall through to
+ */
+public interface ArchivedTradeRepository extends JpaRepository<ArchivedTrade, UUID> {
+
+    /**
+     * Archived trade of the given id, as a projection
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT " + TradeRepository.TRADE_DTO + " FROM ArchivedTrade t WHERE t.id = :id")
+    Optional<TradeDTO> findDTOById(@Param("id") UUID id);
+
+    /**
+     * Status of the archived trade of the given id, reading no other column
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT t.status FROM ArchivedTrade t WHERE t.id = :id")
+    Optional<TradeStatus> findStatusById(@Param("id") UUID id);
+
+    /**
+     * Status, reason and time stamp of the archived trade of the given id
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.client.pojo.TradeStatusUpdate(t.id, t.status, t.reason, t.timeStamp) FROM ArchivedTrade t WHERE t.id = :id")
+    Optional<TradeStatusUpdate> findStatusUpdateById(@Param("id") UUID id);
+
+    /**
+     * Count, quantity and notional of the archived trades per symbol, status and side
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.client.pojo.PositionTotals(t.symbol, t.status, t.side, COUNT(t), SUM(t.quantity), "
+            + "SUM(t.quantity * t.price)) FROM ArchivedTrade t GROUP BY t.symbol, t.status, t.side")
+    List<PositionTotals> findPositionTotals();
+
+}
@@ -0,0 +1,176 @@
+package com.client.respository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.TradeCursor;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+import com.client.pojo.TradeStatusUpdate;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository class to handle the DB requests of the reactive stack
+ * without blocking, on the same trade table as the TradeRepository
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveTradeRepository {
+
+    private static final String COLUMNS = "id, quantity, symbol, side, price, status, reason, time_stamp";
+
+    private static final String INSERT_TRADE = "INSERT INTO trade (" + COLUMNS + ") "
+            + "VALUES (:id, :quantity, :symbol, :side, :price, :status, :reason, :timeStamp)";
+
+    private static final String SELECT_TRADE = "SELECT " + COLUMNS + " FROM trade WHERE id = :id";
+
+    private static final String SELECT_STATUS = "SELECT id, status, reason, time_stamp FROM trade WHERE id = :id";
+
+    private static final String SELECT_ARCHIVED_TRADE = "SELECT " + COLUMNS + " FROM trade_archive WHERE id = :id";
+
+    private static final String SELECT_ARCHIVED_STATUS = "SELECT id, status, reason, time_stamp FROM trade_archive WHERE id = :id";
+
+    private static final String SELECT_PAGE = "SELECT " + COLUMNS + " FROM trade ORDER BY time_stamp, id LIMIT :limit";
+
+    private static final String SELECT_PAGE_AFTER = "SELECT " + COLUMNS + " FROM trade "
+            + "WHERE time_stamp > :timeStamp OR (time_stamp = :timeStamp AND id > :id) "
+            + "ORDER BY time_stamp, id LIMIT :limit";
+
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM trade ORDER BY time_stamp, id";
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    /**
+     * Method to insert a new trade, which must have its id assigned
+     * 
+     * @param trade Trade
+     * @return the inserted Trade
+     */
+    public Mono<Trade> insert(Trade trade) {
+        GenericExecuteSpec spec = databaseClient.sql(INSERT_TRADE)
+                .bind("id", Uuids.toBytes(trade.getId()))
+                .bind("quantity", trade.getQuantity())
+                .bind("symbol", trade.getSymbol())
+                .bind("side", trade.getSide().ordinal())
+                .bind("price", trade.getPrice())
+                .bind("status", String.valueOf(trade.getStatus().getCode()))
+                .bind("timeStamp", toLocalDateTime(trade.getTimeStamp()));
+        spec = trade.getReason() == null ? spec.bindNull("reason", String.class)
+                : spec.bind("reason", trade.getReason());
+        return spec.fetch().rowsUpdated().thenReturn(trade);
+    }
+
+    /**
+     * @return the Trade with the given id, looked up in the trade archive
+     *         when it is not in the trade table, empty when it does not exist
+     */
+    public Mono<Trade> findById(UUID id) {
+        return findTrade(SELECT_TRADE, id).switchIfEmpty(Mono.defer(() -> findTrade(SELECT_ARCHIVED_TRADE, id)));
+    }
+
+    /**
+     * @return the status of the Trade with the given id, looked up like
+     *         findById, empty when it does not exist
+     */
+    public Mono<TradeStatusUpdate> findStatus(UUID id) {
+        return findStatus(SELECT_STATUS, id).switchIfEmpty(Mono.defer(() -> findStatus(SELECT_ARCHIVED_STATUS, id)));
+    }
+
+    private Mono<Trade> findTrade(String sql, UUID id) {
+        return databaseClient.sql(sql)
+                .bind("id", Uuids.toBytes(id))
+                .map((row, metadata) -> toTrade(row))
+                .one();
+    }
+
+    private Mono<TradeStatusUpdate> findStatus(String sql, UUID id) {
+        return databaseClient.sql(sql)
+                .bind("id", Uuids.toBytes(id))
+                .map((row, metadata) -> new TradeStatusUpdate(Uuids.fromBytes(row.get("id", byte[].class)),
+                        toStatus(row), row.get("reason", String.class), toDate(row)))
+                .one();
+    }
+
+    /**
+     * Page of the trades in (timeStamp, id) order, seeking past the cursor
+     * 
+     * @param cursor keyset of the last trade of the previous page, null for the first page
+     * @param limit  page size
+     */
+    public Flux<Trade> findPage(TradeCursor cursor, int limit) {
+        GenericExecuteSpec spec = cursor == null ? databaseClient.sql(SELECT_PAGE)
+                : databaseClient.sql(SELECT_PAGE_AFTER)
+                        .bind("timeStamp", toLocalDateTime(cursor.getTimeStamp()))
+                        .bind("id", Uuids.toBytes(cursor.getId()));
+        return spec.bind("limit", limit)
+                .map((row, metadata) -> toTrade(row))
+                .all();
+    }
+
+    /**
+     * All the trades in (timeStamp, id) order, emitted as they are read
+     * and as fast as the subscriber requests them
+     */
+    public Flux<Trade> streamAll() {
+        return databaseClient.sql(SELECT_ALL)
+                .map((row, metadata) -> toTrade(row))
+                .all();
+    }
+
+    /**
+     * Page of the trades matching the query in (timeStamp, id) order,
+     * reading only the requested columns
+     * 
+     * @param query TradeQuery
+     * @param after keyset of the last trade of the previous page, may be null
+     * @param limit page size
+     */
+    public Mono<TradeRowPage> findTrades(TradeQuery query, TradeCursor after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        GenericExecuteSpec spec = databaseClient.sql(TradeQuerySql.select(query, after, limit, params));
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            Object value = param.getValue();
+            spec = spec.bind(param.getKey(), value instanceof Date ? toLocalDateTime((Date) value) : value);
+        }
+        return spec.fetch().all()
+                .map(TradeQuerySql::toRow)
+                .collectList()
+                .map(rows -> TradeQuerySql.page(rows, query, limit));
+    }
+
+    private static Trade toTrade(Row row) {
+        return new Trade(Uuids.fromBytes(row.get("id", byte[].class)), row.get("quantity", Long.class),
+                row.get("symbol", String.class), BrokerTradeSide.values()[row.get("side", Integer.class)],
+                row.get("price", BigDecimal.class), toStatus(row), row.get("reason", String.class), toDate(row));
+    }
+
+    private static TradeStatus toStatus(Row row) {
+        return TradeStatus.fromCode(row.get("status", String.class).charAt(0));
+    }
+
+    private static Date toDate(Row row) {
+        return Date.from(row.get("time_stamp", LocalDateTime.class).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
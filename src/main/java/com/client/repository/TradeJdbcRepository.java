@@ -0,0 +1,217 @@
+package com.client.respository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.client.entity.Trade;
+import com.client.pojo.TradeCursor;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Repository class to handle the bulk DB requests which are sent
+ * as JDBC batches instead of going through the entity manager
+ */
+@Repository
+public class TradeJdbcRepository {
+
+    /**
+     * Only pending trades move to a new status, so a late update never
+     * overwrites a final one. The time_stamp stays the creation time of the
+     * trade, the pages seek on it.
+     */
+    private static final String UPDATE_STATUS = "UPDATE trade SET status = ?, reason = ? WHERE id = ? AND status = 'P'";
+
+    private static final String INSERT_TRADE = "INSERT INTO trade (id, quantity, symbol, side, price, status, reason, time_stamp, client_order_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_IDS = "SELECT id FROM trade WHERE id IN (:ids)";
+
+    private static final String COUNT_CLIENT_ORDER_ID = "SELECT COUNT(*) FROM trade WHERE client_order_id = ? AND id <> ?";
+
+    private static final String INSERT_OUTBOX = "INSERT INTO trade_outbox (trade_id, created_at) VALUES (?, ?)";
+
+    private static final String SELECT_ARCHIVABLE = "SELECT id FROM trade WHERE status IN ('E', 'N') AND time_stamp < ? LIMIT ?";
+
+    private static final String INSERT_ARCHIVE = "INSERT INTO trade_archive (id, quantity, symbol, side, price, status, reason, time_stamp, client_order_id) "
+            + "SELECT id, quantity, symbol, side, price, status, reason, time_stamp, client_order_id FROM trade WHERE id IN (:ids)";
+
+    private static final String DELETE_TRADES = "DELETE FROM trade WHERE id IN (:ids)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Method to insert the trades in a single JDBC batch and transaction.
+     * The trades must have their id assigned.
+     * 
+     * @param trades new Trades
+     */
+    @Transactional
+    public void insertTrades(final List<Trade> trades) {
+        jdbcTemplate.batchUpdate(INSERT_TRADE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Trade trade = trades.get(i);
+                ps.setBytes(1, Uuids.toBytes(trade.getId()));
+                ps.setLong(2, trade.getQuantity());
+                ps.setString(3, trade.getSymbol());
+                ps.setInt(4, trade.getSide().ordinal());
+                ps.setBigDecimal(5, trade.getPrice());
+                ps.setString(6, String.valueOf(trade.getStatus().getCode()));
+                ps.setString(7, trade.getReason());
+                ps.setTimestamp(8, new Timestamp(trade.getTimeStamp().getTime()));
+                ps.setString(9, trade.getClientOrderId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return trades.size();
+            }
+        });
+    }
+
+    /**
+     * Method to insert the outbox entries of the trades in a single JDBC batch,
+     * within the transaction inserting the trades
+     * 
+     * @param trades new Trades
+     */
+    @Transactional
+    public void insertOutbox(final List<Trade> trades) {
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Trade trade = trades.get(i);
+                ps.setBytes(1, Uuids.toBytes(trade.getId()));
+                ps.setTimestamp(2, new Timestamp(trade.getTimeStamp().getTime()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return trades.size();
+            }
+        });
+    }
+
+    /**
+     * Method to update the status of the pending trades in a single JDBC batch
+     * 
+     * @param updates status updates, at most one per trade
+     * @return updated row count of every update, 0 for a trade no longer pending
+     */
+    public int[] updateStatuses(final List<TradeStatusUpdate> updates) {
+        return jdbcTemplate.batchUpdate(UPDATE_STATUS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                TradeStatusUpdate update = updates.get(i);
+                ps.setString(1, String.valueOf(update.getStatus().getCode()));
+                ps.setString(2, update.getReason());
+                ps.setBytes(3, Uuids.toBytes(update.getId()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+    }
+
+    /**
+     * Method to find which of the trades are already inserted
+     * 
+     * @param ids Trade Ids
+     * @return ids of the inserted trades
+     */
+    public Set<UUID> findExistingIds(Collection<UUID> ids) {
+        Set<UUID> existing = new HashSet<>();
+        if (ids.isEmpty())
+            return existing;
+        List<byte[]> keys = new ArrayList<>(ids.size());
+        ids.forEach(id -> keys.add(Uuids.toBytes(id)));
+        namedParameterJdbcTemplate.query(SELECT_IDS, Collections.singletonMap("ids", keys),
+                (ResultSet rs) -> {
+                    existing.add(Uuids.fromBytes(rs.getBytes(1)));
+                });
+        return existing;
+    }
+
+    /**
+     * Method to check whether the client order id belongs to another trade
+     * 
+     * @param clientOrderId client order id, may be null
+     * @param id            Trade Id
+     * @return true if another trade was saved with the client order id
+     */
+    public boolean isClientOrderIdTaken(String clientOrderId, UUID id) {
+        if (clientOrderId == null)
+            return false;
+        Integer count = jdbcTemplate.queryForObject(COUNT_CLIENT_ORDER_ID, Integer.class, clientOrderId,
+                Uuids.toBytes(id));
+        return count != null && count > 0;
+    }
+
+    /**
+     * Method to move at most limit executed or not executed trades created
+     * before the cutoff to the trade archive, in a single transaction.
+     * Final trades never change, so they are copied without being locked.
+     * 
+     * @param cutoff time stamp the archived trades are older than
+     * @param limit  maximum number of archived trades
+     * @return number of archived trades
+     */
+    @Transactional
+    public int archiveTrades(Date cutoff, int limit) {
+        List<byte[]> keys = jdbcTemplate.query(SELECT_ARCHIVABLE, (rs, rowNum) -> rs.getBytes(1),
+                new Timestamp(cutoff.getTime()), limit);
+        if (keys.isEmpty())
+            return 0;
+        Map<String, Object> params = Collections.singletonMap("ids", keys);
+        namedParameterJdbcTemplate.update(INSERT_ARCHIVE, params);
+        return namedParameterJdbcTemplate.update(DELETE_TRADES, params);
+    }
+
+    /**
+     * Method to get a page of the trades matching the query, in (timeStamp, id)
+     * order, reading only the requested columns
+     * 
+     * @param query TradeQuery
+     * @param after keyset of the last trade of the previous page, may be null
+     * @param limit page size
+     * @return TradeRowPage with the requested fields of every trade
+     */
+    public TradeRowPage findTrades(TradeQuery query, TradeCursor after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        String sql = TradeQuerySql.select(query, after, limit, params);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map<String, Object> columns : namedParameterJdbcTemplate.query(sql, params, new ColumnMapRowMapper()))
+            rows.add(TradeQuerySql.toRow(columns));
+
+        return TradeQuerySql.page(rows, query, limit);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.client.respository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.client.entity.TradeOutbox;
+
+/**
+ * Repository class to handle the DB requests of the trade outbox
+ */
+public interface TradeOutboxRepository extends JpaRepository<TradeOutbox, Long> {
+
+    /**
+     * Oldest entries left in the outbox, in sequence order.
+     * There is no lower bound as the sequence is assigned on insert, an
+     * entry committed after an entry of a higher sequence is relayed too.
+     */
+    @Query("SELECT o FROM TradeOutbox o ORDER BY o.seq")
+    List<TradeOutbox> findBatch(Pageable pageable);
+
+    /**
+     * Removes the relayed entries
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TradeOutbox o WHERE o.seq IN :seqs")
+    int deleteRelayed(@Param("seqs") Collection<Long> seqs);
+
+}
@@ -0,0 +1,152 @@
+package com.client.respository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.TradeStatus;
+import com.client.pojo.TradeCursor;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+
+/**
+ * Class to build the SQL of a TradeQuery, shared by the JDBC and the
+ * R2DBC repositories. Only the requested columns are selected and the
+ * filters are equality on (symbol, side, status) and a range on time_stamp,
+ * so they are served by the idx_trade_symbol_side_status_time_stamp and
+ * idx_trade_status_time_stamp index range scans in (time_stamp, id) order.
+ */
+final class TradeQuerySql {
+
+    private static final String ID = "id";
+
+    private static final String TIME_STAMP = "timeStamp";
+
+    private TradeQuerySql() {
+    }
+
+    /**
+     * Method to build the select of a page of the query, seeking past the cursor.
+     * The id and time_stamp columns are always selected to build the next cursor.
+     * 
+     * @param query  TradeQuery
+     * @param after  keyset of the last trade of the previous page, may be null
+     * @param limit  page size
+     * @param params named parameters of the select, filled by this method
+     * @return SQL with named parameters
+     */
+    static String select(TradeQuery query, TradeCursor after, int limit, Map<String, Object> params) {
+        List<String> columns = new ArrayList<>();
+        for (String field : TradeQuery.FIELDS) {
+            if (query.getFields().contains(field) || ID.equals(field) || TIME_STAMP.equals(field))
+                columns.add(column(field));
+        }
+
+        List<String> conditions = new ArrayList<>();
+        if (query.getSymbol() != null) {
+            conditions.add("symbol = :symbol");
+            params.put("symbol", query.getSymbol());
+        }
+        if (query.getSide() != null) {
+            conditions.add("side = :side");
+            params.put("side", query.getSide().ordinal());
+        }
+        if (query.getStatus() != null) {
+            conditions.add("status = :status");
+            params.put("status", String.valueOf(query.getStatus().getCode()));
+        }
+        if (query.getFrom() != null) {
+            conditions.add("time_stamp >= :from");
+            params.put("from", query.getFrom());
+        }
+        if (query.getTo() != null) {
+            conditions.add("time_stamp < :to");
+            params.put("to", query.getTo());
+        }
+        if (after != null) {
+            conditions.add("(time_stamp > :afterTimeStamp OR (time_stamp = :afterTimeStamp AND id > :afterId))");
+            params.put("afterTimeStamp", after.getTimeStamp());
+            params.put("afterId", Uuids.toBytes(after.getId()));
+        }
+        params.put("limit", limit);
+
+        return "SELECT " + String.join(", ", columns) + " FROM trade"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY time_stamp, id LIMIT :limit";
+    }
+
+    /**
+     * Method to convert the selected columns of a row to the trade fields
+     * 
+     * @param columns column values by name, case insensitive
+     * @return field values by name, in the TradeQuery.FIELDS order
+     */
+    static Map<String, Object> toRow(Map<String, Object> columns) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : TradeQuery.FIELDS) {
+            String column = column(field);
+            if (columns.containsKey(column))
+                row.put(field, toValue(field, columns.get(column)));
+        }
+        return row;
+    }
+
+    /**
+     * Method to create the page of the rows, with the next cursor when the page
+     * is full. The id and timeStamp are then removed unless requested.
+     * 
+     * @param rows  rows converted by toRow
+     * @param query TradeQuery
+     * @param limit page size
+     * @return TradeRowPage
+     */
+    static TradeRowPage page(List<Map<String, Object>> rows, TradeQuery query, int limit) {
+        String nextCursor = null;
+        if (!rows.isEmpty() && rows.size() == limit) {
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            nextCursor = new TradeCursor((Date) last.get(TIME_STAMP), (UUID) last.get(ID)).encode();
+        }
+        boolean keepId = query.getFields().contains(ID);
+        boolean keepTimeStamp = query.getFields().contains(TIME_STAMP);
+        if (!keepId || !keepTimeStamp) {
+            for (Map<String, Object> row : rows) {
+                if (!keepId)
+                    row.remove(ID);
+                if (!keepTimeStamp)
+                    row.remove(TIME_STAMP);
+            }
+        }
+        return new TradeRowPage(rows, nextCursor);
+    }
+
+    private static String column(String field) {
+        return TIME_STAMP.equals(field) ? "time_stamp" : field;
+    }
+
+    private static Object toValue(String field, Object value) {
+        if (value == null)
+            return null;
+        switch (field) {
+        case "id":
+            return Uuids.fromBytes((byte[]) value);
+        case "quantity":
+            return ((Number) value).longValue();
+        case "side":
+            return BrokerTradeSide.values()[((Number) value).intValue()];
+        case "status":
+            return TradeStatus.fromCode(value.toString().charAt(0));
+        case "timeStamp":
+            if (value instanceof LocalDateTime)
+                return Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+            return new Date(((Date) value).getTime());
+        default:
+            return value;
+        }
+    }
+}
@@ -1,23 +1,127 @@
 package com.client.respository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.PositionTotals;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradeStatusUpdate;
 
 /**
- * Repository class to handle the DB requests
+ * Repository class to handle the DB requests.
+ * The reads of the API return TradeDTO projections built by constructor
+ * expressions in read only transactions, which leave the persistence
+ * context empty and are never flushed.
  */
-public interface TradeRepository extends JpaRepository<Trade, Long> {
+public interface TradeRepository extends JpaRepository<Trade, UUID> {
 
-    Optional<Trade> getById(String id);
+    /**
+     * Constructor expression of the TradeDTO of the trade t
+     */
+    String TRADE_DTO = "new com.client.pojo.TradeDTO(t.id, t.quantity, t.symbol, t.side, t.price, t.status, "
+            + "t.reason, t.timeStamp, t.clientOrderId)";
 
     List<Trade> findAll();
 
-    @Query(value = "SELECT * FROM TRADE WHERE STATUS = 'PENDING_EXECUTION' AND TIMESTAMPDIFF(MINUTE, TIME_STAMP ,NOW())> 2", nativeQuery = true)
-    List<Trade> findIdleTrades();
+    /**
+     * Trade of the given id, as a projection
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT " + TRADE_DTO + " FROM Trade t WHERE t.id = :id")
+    Optional<TradeDTO> findDTOById(@Param("id") UUID id);
+
+    /**
+     * Status of the trade of the given id, reading no other column
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT t.status FROM Trade t WHERE t.id = :id")
+    Optional<TradeStatus> findStatusById(@Param("id") UUID id);
+
+    /**
+     * Status, reason and time stamp of the trade of the given id
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.client.pojo.TradeStatusUpdate(t.id, t.status, t.reason, t.timeStamp) FROM Trade t WHERE t.id = :id")
+    Optional<TradeStatusUpdate> findStatusUpdateById(@Param("id") UUID id);
+
+    /**
+     * Trade submitted with the given client order id, served by its unique index
+     */
+    Optional<Trade> findByClientOrderId(String clientOrderId);
+
+    /**
+     * First page of the trades in (timeStamp, id) order
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT " + TRADE_DTO + " FROM Trade t ORDER BY t.timeStamp, t.id")
+    List<TradeDTO> findPage(Pageable pageable);
+
+    /**
+     * Next page of the trades in (timeStamp, id) order, seeking past the given
+     * keyset instead of using an offset
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT " + TRADE_DTO + " FROM Trade t WHERE t.timeStamp > :timeStamp OR (t.timeStamp = :timeStamp AND t.id > :id) ORDER BY t.timeStamp, t.id")
+    List<TradeDTO> findPageAfter(@Param("timeStamp") Date timeStamp, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * All the trades in (timeStamp, id) order, fetched from the cursor in chunks.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + TRADE_DTO + " FROM Trade t ORDER BY t.timeStamp, t.id")
+    Stream<TradeDTO> streamAll();
+
+    /**
+     * All the pending trades
+     */
+    @Query("SELECT t FROM Trade t WHERE t.status = :#{T(com.client.entity.TradeStatus).PENDING_EXECUTION}")
+    List<Trade> findPendingTrades();
+
+    /**
+     * Count, quantity and notional of the trades per symbol, status and side
+     */
+    @Query("SELECT new com.client.pojo.PositionTotals(t.symbol, t.status, t.side, COUNT(t), SUM(t.quantity), "
+            + "SUM(t.quantity * t.price)) FROM Trade t GROUP BY t.symbol, t.status, t.side")
+    List<PositionTotals> findPositionTotals();
+
+    /**
+     * Marks the given trades as expired unless they are no longer pending.
+     * The status guard makes the transition atomic without reading the trades.
+     * 
+     * @return number of expired trades
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trade t SET t.status = :#{T(com.client.entity.TradeStatus).NOT_EXECUTED}, t.reason = 'trade expired' WHERE t.id IN :ids AND t.status = :#{T(com.client.entity.TradeStatus).PENDING_EXECUTION}")
+    int expireTrades(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Marks at most limit pending trades created before the cutoff as expired
+     * in its own transaction
+     * 
+     * @return number of expired trades
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE trade SET status = 'N', reason = 'trade expired' WHERE id IN "
+            + "(SELECT id FROM trade WHERE status = 'P' AND time_stamp < :cutoff LIMIT :limit)", nativeQuery = true)
+    int expireIdleTrades(@Param("cutoff") Date cutoff, @Param("limit") int limit);
 
 }
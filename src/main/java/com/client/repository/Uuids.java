@@ -0,0 +1,26 @@
+package com.client.respository;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Conversions between UUID and the BINARY(16) representation
+ * of the trade ids used in the JDBC queries
+ */
+public final class Uuids {
+
+    private Uuids() {
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
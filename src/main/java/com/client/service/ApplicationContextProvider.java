@@ -1,26 +0,0 @@
-package com.client.service;
-
-import org.springframework.beans.BeansException;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.ApplicationContextAware;
-import org.springframework.stereotype.Component;
-
-/**
- * Application context provier class to get the required bean
- * from the SPring boot context.
- */
-@Component
-public class ApplicationContextProvider implements ApplicationContextAware {
-
-    private static ApplicationContext context;
-
-    public static ApplicationContext getApplicationContext() {
-        return context;
-    }
-
-    @Override
-    public void setApplicationContext(ApplicationContext ac)
-            throws BeansException {
-        context = ac;
-    }
-}
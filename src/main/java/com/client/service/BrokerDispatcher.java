@@ -0,0 +1,190 @@
+package com.client.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+import com.client.broker.BrokerGateway;
+
+/**
+ * Dispatcher class sitting between the TradeService and the broker gateway.
+ * Trades are accepted into a bounded queue and handed to the broker in batches
+ * by a fixed pool of worker threads. A full queue rejects the trade instead of
+ * growing the backlog without limit.
+ */
+@Component
+public class BrokerDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(BrokerDispatcher.class);
+
+    /**
+     * Time a worker waits for a trade before checking for shutdown
+     */
+    private static final long POLL_MILLIS = 100;
+
+    private final BlockingQueue<BrokerTrade> queue;
+    private final BrokerResponseCallback callback;
+    private final BrokerGateway.Factory brokerGatewayFactory;
+    private final TradeMetrics tradeMetrics;
+    private final int workers;
+    private final int batchSize;
+    private final int callbackThreads;
+    private final boolean virtualThreads;
+
+    private ExecutorService workerPool;
+    private ScheduledExecutorService brokerScheduler;
+    private ExecutorService callbackExecutor;
+    private BrokerGateway brokerGateway;
+    private volatile boolean running;
+
+    @Autowired
+    public BrokerDispatcher(BrokerResponseCallback callback, BrokerGateway.Factory brokerGatewayFactory,
+            TradeMetrics tradeMetrics,
+            @Value("${trade.dispatch.queue-capacity:4096}") int queueCapacity,
+            @Value("${trade.dispatch.workers:4}") int workers,
+            @Value("${trade.dispatch.batch-size:64}") int batchSize,
+            @Value("${trade.dispatch.callback-threads:4}") int callbackThreads,
+            @Value("${trade.threads.virtual:false}") boolean virtualThreads) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.callback = callback;
+        this.brokerGatewayFactory = brokerGatewayFactory;
+        this.tradeMetrics = tradeMetrics;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.callbackThreads = callbackThreads;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Method to start the broker and the dispatcher workers.
+     * With virtual threads the workers are virtual threads and every broker
+     * response is processed on its own virtual thread, the scheduler threads
+     * only keep the time of the responses.
+     */
+    @PostConstruct
+    public void start() {
+        BrokerResponseCallback brokerCallback = callback;
+        if (virtualThreads) {
+            callbackExecutor = TradeThreads.newThreadPerTaskExecutor("broker-callback", true);
+            brokerCallback = new ExecutorCallback(callback, callbackExecutor);
+        }
+        brokerScheduler = Executors.newScheduledThreadPool(virtualThreads ? 1 : callbackThreads,
+                TradeThreads.factory("broker-scheduler", false));
+        brokerGateway = brokerGatewayFactory.create(brokerCallback, brokerScheduler);
+        workerPool = Executors.newFixedThreadPool(workers, TradeThreads.factory("broker-dispatcher", virtualThreads));
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::dispatchLoop);
+        }
+    }
+
+    /**
+     * Method to stop the workers once the queued trades are handed to the broker
+     * 
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (workerPool != null) {
+            workerPool.shutdown();
+            workerPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (brokerScheduler != null)
+            brokerScheduler.shutdown();
+        if (callbackExecutor != null)
+            callbackExecutor.shutdown();
+    }
+
+    /**
+     * Method to queue the trade for submission to the broker
+     * 
+     * @param trade BrokerTrade
+     * @return false if the queue is full and the trade was not accepted
+     */
+    public boolean submit(BrokerTrade trade) {
+        return queue.offer(trade);
+    }
+
+    /**
+     * @return number of trades waiting to be handed to the broker
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of trades the queue can still accept
+     */
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * Worker loop which blocks for the first trade and then drains
+     * whatever else is queued, up to the batch size, in one go.
+     */
+    private void dispatchLoop() {
+        List<BrokerTrade> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                BrokerTrade first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                tradeMetrics.dispatched(batch);
+                brokerGateway.execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Exception while dispatching " + batch.size() + " trades to the broker", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Callback handing every broker response to the executor
+     */
+    private static final class ExecutorCallback implements BrokerResponseCallback {
+
+        private final BrokerResponseCallback callback;
+        private final Executor executor;
+
+        private ExecutorCallback(BrokerResponseCallback callback, Executor executor) {
+            this.callback = callback;
+            this.executor = executor;
+        }
+
+        @Override
+        public void successful(UUID tradeId) {
+            executor.execute(() -> callback.successful(tradeId));
+        }
+
+        @Override
+        public void unsuccessful(UUID tradeId, String reason) {
+            executor.execute(() -> callback.unsuccessful(tradeId, reason));
+        }
+    }
+}
@@ -2,28 +2,41 @@ package com.client.service;
 
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
 import com.broker.external.BrokerResponseCallback;
 
 /**
- * CallBack class to handle the response came from External Broker
+ * CallBack class to handle the response came from External Broker.
+ * Single instance wired once into the BrokerDispatcher.
  */
+@Component
 public class BrokerResponseCallBack implements BrokerResponseCallback {
 
-    @Override
-    public void successful(UUID tradeId) {
+    private final TradeStatusUpdater tradeStatusUpdater;
+    private final TradeMetrics tradeMetrics;
 
-        TradeService tradeService = ApplicationContextProvider.getApplicationContext().getBean(TradeService.class);
-
-        tradeService.updateTradeStatus(tradeId);
+    @Autowired
+    public BrokerResponseCallBack(TradeStatusUpdater tradeStatusUpdater, TradeMetrics tradeMetrics) {
+        this.tradeStatusUpdater = tradeStatusUpdater;
+        this.tradeMetrics = tradeMetrics;
+    }
 
+    @Override
+    public void successful(UUID tradeId) {
+        long callback = System.nanoTime();
+        tradeMetrics.responded(tradeId, TradeMetrics.SUCCESS);
+        tradeStatusUpdater.executed(tradeId);
+        tradeMetrics.statusWritten(callback);
     }
 
     @Override
     public void unsuccessful(UUID tradeId, String reason) {
-
-        TradeService tradeService = ApplicationContextProvider.getApplicationContext().getBean(TradeService.class);
-
-        tradeService.updateTradeStatus(tradeId, reason);
+        long callback = System.nanoTime();
+        tradeMetrics.responded(tradeId, TradeMetrics.FAILURE);
+        tradeStatusUpdater.notExecuted(tradeId, reason);
+        tradeMetrics.statusWritten(callback);
     }
 
 }
@@ -0,0 +1,38 @@
+package com.client.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Striped sum of BigDecimals, the decimal counterpart of a LongAdder.
+ * Threads add to their own stripe so concurrent updates rarely contend,
+ * the sum is only exact when no update is running.
+ */
+final class DecimalAdder {
+
+    private static final int STRIPES = 16;
+
+    private final AtomicReferenceArray<BigDecimal> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    DecimalAdder() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.set(i, BigDecimal.ZERO);
+        }
+    }
+
+    void add(BigDecimal value) {
+        int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+        BigDecimal current;
+        do {
+            current = stripes.get(stripe);
+        } while (!stripes.compareAndSet(stripe, current, current.add(value)));
+    }
+
+    BigDecimal sum() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < STRIPES; i++) {
+            sum = sum.add(stripes.get(i));
+        }
+        return sum;
+    }
+}
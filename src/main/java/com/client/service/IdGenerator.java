@@ -9,15 +9,36 @@ import org.hibernate.id.IdentifierGenerator;
 
 /**
  * Generator class to generate the Unique UUID
- * for the created trade.
+ * for the created trade, using the configured TradeIdStrategy.
  */
 public class IdGenerator implements IdentifierGenerator {
 
     public static final String generatorName = "idGenerator";
 
+    private static volatile TradeIdStrategy strategy = new TimeOrderedTradeIdStrategy();
+
     @Override
     public Serializable generate(SharedSessionContractImplementor sharedSessionContractImplementor, Object object)
             throws HibernateException {
-        return UUID.randomUUID().toString();
+        return newId();
+    }
+
+    /**
+     * Method to generate the id for the trades which are not
+     * persisted through Hibernate
+     * 
+     * @return new Trade Id
+     */
+    public static UUID newId() {
+        return strategy.nextId();
+    }
+
+    /**
+     * Method to replace the strategy used for the new ids
+     * 
+     * @param tradeIdStrategy TradeIdStrategy
+     */
+    public static void setStrategy(TradeIdStrategy tradeIdStrategy) {
+        strategy = tradeIdStrategy;
     }
 }
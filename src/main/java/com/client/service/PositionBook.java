@@ -0,0 +1,169 @@
+package com.client.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.PositionDTO;
+import com.client.pojo.PositionTotals;
+import com.client.pojo.StatusTotalsDTO;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Component keeping the position of every symbol, as the totals of its
+ * trades per status, up to date as the trades are saved and get their
+ * final status. Reading the positions costs O(symbols) instead of a scan
+ * of the trades.
+ * The pending trades are kept until their final status so it can be
+ * moved from the pending totals to the final ones.
+ */
+@Component
+public class PositionBook {
+
+    private final TradeStatusUpdater tradeStatusUpdater;
+
+    private final ConcurrentHashMap<String, SymbolPosition> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Trade> pendingTrades = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PositionBook(TradeStatusUpdater tradeStatusUpdater) {
+        this.tradeStatusUpdater = tradeStatusUpdater;
+    }
+
+    @PostConstruct
+    public void start() {
+        tradeStatusUpdater.addListener(this::apply);
+    }
+
+    /**
+     * Method to add a new pending trade
+     * 
+     * @param trade saved Trade
+     */
+    public void pending(Trade trade) {
+        pendingTrades.put(trade.getId(), trade);
+        position(trade.getSymbol()).totals(TradeStatus.PENDING_EXECUTION).add(trade, 1);
+    }
+
+    /**
+     * Method to remove a pending trade which was not saved after all
+     * 
+     * @param trade Trade added as pending
+     */
+    public void discard(Trade trade) {
+        if (pendingTrades.remove(trade.getId()) != null)
+            position(trade.getSymbol()).totals(TradeStatus.PENDING_EXECUTION).add(trade, -1);
+    }
+
+    /**
+     * Method to move a pending trade to its final status.
+     * Updates of trades which are not pending are ignored.
+     * 
+     * @param update final status of the trade
+     */
+    public void apply(TradeStatusUpdate update) {
+        if (!update.getStatus().isTerminal())
+            return;
+        Trade trade = pendingTrades.remove(update.getId());
+        if (trade == null)
+            return;
+        SymbolPosition position = position(trade.getSymbol());
+        position.totals(TradeStatus.PENDING_EXECUTION).add(trade, -1);
+        position.totals(update.getStatus()).add(trade, 1);
+    }
+
+    /**
+     * Method to rebuild the positions from the totals of the database
+     * 
+     * @param totals        totals per symbol, status and side
+     * @param pendingTrades trades pending execution
+     */
+    public void rebuild(List<PositionTotals> totals, List<Trade> pendingTrades) {
+        this.positions.clear();
+        this.pendingTrades.clear();
+        totals.forEach(total -> position(total.getSymbol()).totals(total.getStatus()).add(total));
+        pendingTrades.forEach(trade -> this.pendingTrades.put(trade.getId(), trade));
+    }
+
+    /**
+     * @return position of every symbol with trades
+     */
+    public List<PositionDTO> getPositions() {
+        List<PositionDTO> result = new ArrayList<>(positions.size());
+        positions.forEach((symbol, position) -> result.add(position.toDTO(symbol)));
+        result.sort((first, second) -> first.getSymbol().compareTo(second.getSymbol()));
+        return result;
+    }
+
+    private SymbolPosition position(String symbol) {
+        return positions.computeIfAbsent(symbol, key -> new SymbolPosition());
+    }
+
+    private static final class SymbolPosition {
+
+        private final StatusTotals[] byStatus = new StatusTotals[TradeStatus.values().length];
+
+        private SymbolPosition() {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new StatusTotals();
+            }
+        }
+
+        private StatusTotals totals(TradeStatus status) {
+            return byStatus[status.ordinal()];
+        }
+
+        private PositionDTO toDTO(String symbol) {
+            Map<TradeStatus, StatusTotalsDTO> statuses = new EnumMap<>(TradeStatus.class);
+            for (TradeStatus status : TradeStatus.values()) {
+                statuses.put(status, totals(status).toDTO());
+            }
+            return new PositionDTO(symbol, statuses);
+        }
+    }
+
+    private static final class StatusTotals {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder netQuantity = new LongAdder();
+        private final DecimalAdder notional = new DecimalAdder();
+        private final DecimalAdder netNotional = new DecimalAdder();
+
+        /**
+         * Adds (sign 1) or removes (sign -1) a trade
+         */
+        private void add(Trade trade, int sign) {
+            BigDecimal tradeNotional = trade.getPrice().multiply(BigDecimal.valueOf(trade.getQuantity()));
+            int direction = trade.getSide() == BrokerTradeSide.SELL ? -sign : sign;
+            count.add(sign);
+            netQuantity.add(direction * trade.getQuantity());
+            notional.add(sign < 0 ? tradeNotional.negate() : tradeNotional);
+            netNotional.add(direction < 0 ? tradeNotional.negate() : tradeNotional);
+        }
+
+        private void add(PositionTotals total) {
+            boolean sell = total.getSide() == BrokerTradeSide.SELL;
+            count.add(total.getCount());
+            netQuantity.add(sell ? -total.getQuantity() : total.getQuantity());
+            notional.add(total.getNotional());
+            netNotional.add(sell ? total.getNotional().negate() : total.getNotional());
+        }
+
+        private StatusTotalsDTO toDTO() {
+            return new StatusTotalsDTO(count.sum(), netQuantity.sum(), notional.sum(), netNotional.sum());
+        }
+    }
+}
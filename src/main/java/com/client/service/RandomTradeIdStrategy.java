@@ -0,0 +1,14 @@
+package com.client.service;
+
+import java.util.UUID;
+
+/**
+ * Strategy generating random version 4 UUIDs from the shared SecureRandom
+ */
+public class RandomTradeIdStrategy implements TradeIdStrategy {
+
+    @Override
+    public UUID nextId() {
+        return UUID.randomUUID();
+    }
+}
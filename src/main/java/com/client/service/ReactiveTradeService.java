@@ -0,0 +1,199 @@
+package com.client.service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.exception.InvalidCursorException;
+import com.client.exception.InvalidTradeQueryException;
+import com.client.exception.TradeNotFoundException;
+import com.client.exception.TradeRejectedException;
+import com.client.pojo.BatchTradeResult;
+import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeCursor;
+import com.client.pojo.TradePage;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.ReactiveTradeRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service class to create and get the trades without blocking, for the
+ * reactive profile. Trades are inserted through R2DBC and then follow the
+ * same dispatch, expiry and status pipeline as the TradeService.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTradeService {
+
+    @Autowired
+    ReactiveTradeRepository reactiveTradeRepository;
+
+    @Autowired
+    TradeService tradeService;
+
+    @Autowired
+    TradeStatusCache tradeStatusCache;
+
+    @Autowired
+    TradeStatusWriteBehind tradeStatusWriteBehind;
+
+    @Autowired
+    ReactiveTradeStatusBridge reactiveTradeStatusBridge;
+
+    /**
+     * Method to save the Trade
+     * When the broker dispatch queue is full the saved trade is marked as
+     * NOT_EXECUTED and the request is rejected.
+     * 
+     * @param trade Trade
+     * @param side  BrokerTradeSide BUY/SELL
+     * @return newly created Trade, or TradeRejectedException
+     */
+    public Mono<Trade> saveTrade(Trade trade, BrokerTradeSide side) {
+        long submitted = System.nanoTime();
+        trade.setId(IdGenerator.newId());
+        trade.setStatus(TradeStatus.PENDING_EXECUTION);
+        trade.setReason(null);
+        trade.setSide(side);
+        trade.setTimeStamp(new Date());
+        return reactiveTradeRepository.insert(trade)
+                .flatMap(newTrade -> {
+                    try {
+                        tradeService.dispatch(newTrade, submitted);
+                    } catch (TradeRejectedException e) {
+                        return Mono.error(e);
+                    }
+                    return Mono.just(newTrade);
+                });
+    }
+
+    /**
+     * Method to save the Trade submitted with a client order id.
+     * Goes through the idempotent save of the TradeService on the bounded
+     * elastic scheduler, as a retry may wait for the original submission.
+     * 
+     * @param trade         Trade
+     * @param side          BrokerTradeSide BUY/SELL
+     * @param clientOrderId idempotency key of the client, may be null
+     * @return newly created Trade or the one of the original submission
+     */
+    public Mono<Trade> saveTrade(Trade trade, BrokerTradeSide side, String clientOrderId) {
+        if (clientOrderId == null)
+            return saveTrade(trade, side);
+        return Mono.fromCallable(() -> tradeService.saveTrade(trade, side, clientOrderId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Method to save a batch of Trades.
+     * The batch goes through the JDBC batch insert of the TradeService on the
+     * bounded elastic scheduler, away from the event loop.
+     * 
+     * @param trades Trades with their side
+     * @return BatchTradeResult with the id or the error of every trade, in order
+     */
+    public Mono<List<BatchTradeResult>> saveTrades(List<Trade> trades) {
+        return Mono.fromCallable(() -> tradeService.saveTrades(trades))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Method to get the Trade by Id
+     * 
+     * @param id Trade Id
+     * @return Trade, or TradeNotFoundException
+     */
+    public Mono<Trade> getTrade(UUID id) {
+        return reactiveTradeRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new TradeNotFoundException("Not Found")));
+    }
+
+    /**
+     * Method to get a page of trades ordered by (timeStamp, id)
+     * 
+     * @param after encoded cursor of the previous page, null for the first page
+     * @param limit requested page size, capped to MAX_PAGE_SIZE
+     * @return TradePage, or InvalidCursorException
+     */
+    public Mono<TradePage> getTrades(String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, TradeService.MAX_PAGE_SIZE));
+        TradeCursor cursor;
+        try {
+            cursor = TradeCursor.decode(after);
+        } catch (InvalidCursorException e) {
+            return Mono.error(e);
+        }
+        return reactiveTradeRepository.findPage(cursor, pageSize)
+                .collectList()
+                .map(trades -> new TradePage(trades, trades.size() == pageSize
+                        ? TradeCursor.of(trades.get(trades.size() - 1)).encode()
+                        : null));
+    }
+
+    /**
+     * Method to get a page of the trades matching the query ordered by
+     * (timeStamp, id), with only the requested fields of every trade
+     * 
+     * @param query filters and fields of the trades
+     * @param after encoded cursor of the previous page, null for the first page
+     * @param limit requested page size, capped to MAX_PAGE_SIZE
+     * @return TradeRowPage, or InvalidCursorException/InvalidTradeQueryException
+     */
+    public Mono<TradeRowPage> getTrades(TradeQuery query, String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, TradeService.MAX_PAGE_SIZE));
+        TradeCursor cursor;
+        try {
+            query.validate();
+            cursor = TradeCursor.decode(after);
+        } catch (InvalidTradeQueryException | InvalidCursorException e) {
+            return Mono.error(e);
+        }
+        return reactiveTradeRepository.findTrades(query, cursor, pageSize);
+    }
+
+    /**
+     * Method to stream all the trades, as fast as the subscriber requests them
+     * 
+     * @return Flux of the Trades
+     */
+    public Flux<Trade> streamAllTrades() {
+        return reactiveTradeRepository.streamAll();
+    }
+
+    /**
+     * Method to get the status of a Trade by Id.
+     * Served from the status cache, then from the updates not written yet
+     * and only then from the database. A pending trade can be waited for,
+     * up to the given time, until it gets its final status.
+     * 
+     * @param id   Trade Id
+     * @param wait maximum wait for the final status of a pending trade, zero to return at once
+     * @return StatusDTO, or TradeNotFoundException
+     */
+    public Mono<StatusDTO> getTradeStatus(UUID id, Duration wait) {
+        TradeStatusUpdate update = tradeStatusCache.get(id);
+        if (update == null)
+            update = tradeStatusWriteBehind.getPending(id);
+        Mono<TradeStatusUpdate> status = update != null ? Mono.just(update)
+                : reactiveTradeRepository.findStatus(id)
+                        .doOnNext(tradeStatusCache::load)
+                        .switchIfEmpty(Mono.error(() -> new TradeNotFoundException("Not Found")));
+
+        return status.flatMap(current -> wait.isZero() || current.getStatus().isTerminal() ? Mono.just(current)
+                : reactiveTradeStatusBridge.awaitFinalStatus(id, wait).defaultIfEmpty(current))
+                .map(current -> new StatusDTO(current.getStatus()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.client.service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.client.pojo.TradeStatusUpdate;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Bridge from the broker callbacks and the expiry of the pending trades to
+ * the reactive stack. Status polls waiting for a pending trade subscribe to
+ * a Sinks.One completed by the callback thread, so no thread is held while
+ * the broker is working.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTradeStatusBridge {
+
+    private final TradeStatusUpdater tradeStatusUpdater;
+    private final TradeStatusCache tradeStatusCache;
+
+    private final ConcurrentHashMap<UUID, Sinks.One<TradeStatusUpdate>> waiting = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReactiveTradeStatusBridge(TradeStatusUpdater tradeStatusUpdater, TradeStatusCache tradeStatusCache) {
+        this.tradeStatusUpdater = tradeStatusUpdater;
+        this.tradeStatusCache = tradeStatusCache;
+    }
+
+    @PostConstruct
+    public void start() {
+        tradeStatusUpdater.addListener(this::complete);
+    }
+
+    /**
+     * Method to wait for the final status of a pending trade.
+     * The cache is checked once the wait is registered, so a status applied
+     * just before is not missed.
+     * 
+     * @param id      Trade Id
+     * @param timeout maximum wait
+     * @return the final TradeStatusUpdate, or empty when the timeout elapses first
+     */
+    public Mono<TradeStatusUpdate> awaitFinalStatus(UUID id, Duration timeout) {
+        Sinks.One<TradeStatusUpdate> sink = waiting.computeIfAbsent(id, key -> Sinks.one());
+        TradeStatusUpdate cached = tradeStatusCache.get(id);
+        if (cached != null && cached.getStatus().isTerminal())
+            complete(cached);
+        return sink.asMono().timeout(timeout, Mono.empty());
+    }
+
+    /**
+     * @return number of trades with status polls waiting for them
+     */
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    private void complete(TradeStatusUpdate update) {
+        Sinks.One<TradeStatusUpdate> sink = waiting.remove(update.getId());
+        if (sink != null)
+            sink.tryEmitValue(update);
+    }
+}
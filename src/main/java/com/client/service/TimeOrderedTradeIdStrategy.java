@@ -0,0 +1,24 @@
+package com.client.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strategy generating time ordered version 7 UUIDs.
+ * The 48 most significant bits hold the unix time in millis so new ids are
+ * appended to the end of the primary key index, the remaining 74 bits are
+ * random and taken from the thread local generator instead of SecureRandom.
+ */
+public class TimeOrderedTradeIdStrategy implements TradeIdStrategy {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+
+    @Override
+    public UUID nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | VERSION | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = VARIANT | (random.nextLong() & 0x3FFFFFFFFFFFFFFFL);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
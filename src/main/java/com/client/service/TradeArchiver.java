@@ -0,0 +1,112 @@
+package com.client.service;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.client.respository.TradeJdbcRepository;
+
+/**
+ * Background task keeping the trade table small. Executed and not executed
+ * trades older than the minimum age are moved to the trade archive in
+ * chunks, each one in its own transaction, so the queries on the trade
+ * table cost the same however long the history is. Id lookups fall through
+ * to the archive.
+ */
+@Component
+public class TradeArchiver {
+
+    private static final Logger logger = LogManager.getLogger(TradeArchiver.class);
+
+    private final TradeJdbcRepository tradeJdbcRepository;
+    private final TradeMetrics tradeMetrics;
+    private final boolean enabled;
+    private final long minAgeMillis;
+    private final long intervalMillis;
+    private final int batchSize;
+
+    private volatile boolean running = true;
+    private ScheduledExecutorService archiver;
+
+    @Autowired
+    public TradeArchiver(TradeJdbcRepository tradeJdbcRepository, TradeMetrics tradeMetrics,
+            @Value("${trade.archive.enabled:false}") boolean enabled,
+            @Value("${trade.archive.min-age-millis:86400000}") long minAgeMillis,
+            @Value("${trade.archive.interval-millis:60000}") long intervalMillis,
+            @Value("${trade.archive.batch-size:1000}") int batchSize) {
+        this.tradeJdbcRepository = tradeJdbcRepository;
+        this.tradeMetrics = tradeMetrics;
+        this.enabled = enabled;
+        this.minAgeMillis = minAgeMillis;
+        this.intervalMillis = intervalMillis;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method to start archiving periodically, when enabled
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled)
+            return;
+        archiver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiver.scheduleWithFixedDelay(this::archiveOldTrades, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to stop archiving, the chunk in progress is completed
+     * 
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (archiver != null) {
+            archiver.shutdown();
+            archiver.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Method to move the final trades created before the cutoff to the trade
+     * archive, at most batchSize trades per transaction
+     * 
+     * @param cutoff time stamp the archived trades are older than
+     * @return number of archived trades
+     */
+    public int archive(Date cutoff) {
+        int archived = 0;
+        int moved;
+        do {
+            moved = tradeJdbcRepository.archiveTrades(cutoff, batchSize);
+            archived += moved;
+            tradeMetrics.archived(moved);
+        } while (moved == batchSize && running);
+        return archived;
+    }
+
+    private void archiveOldTrades() {
+        try {
+            int archived = archive(new Date(System.currentTimeMillis() - minAgeMillis));
+            if (archived > 0)
+                logger.info("Archived " + archived + " trades");
+        } catch (RuntimeException e) {
+            logger.error("Exception while archiving the trades", e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.client.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deadline queue of the pending trades.
+ * Every pending trade is registered with the time it expires at. A broker
+ * response cancels the registration and trades still registered when their
+ * deadline passes are handed to the expiry handler in batches.
+ */
+@Component
+public class TradeExpiryQueue {
+
+    private static final Logger logger = LogManager.getLogger(TradeExpiryQueue.class);
+
+    /**
+     * Delay before trades whose expiry failed are expired again
+     */
+    private static final long RETRY_MILLIS = 1000;
+
+    private final DelayQueue<Expiry> deadlines = new DelayQueue<>();
+    private final ConcurrentHashMap<UUID, Expiry> pending = new ConcurrentHashMap<>();
+
+    private Thread expiryThread;
+
+    /**
+     * Method to register a pending trade
+     * 
+     * @param id       Trade Id
+     * @param deadline epoch millis at which the trade expires
+     */
+    public void schedule(UUID id, long deadline) {
+        Expiry expiry = new Expiry(id, deadline);
+        pending.put(id, expiry);
+        deadlines.offer(expiry);
+    }
+
+    /**
+     * Method to cancel the registration of a trade which got a response.
+     * The deadline entry itself is skipped when it comes due.
+     * 
+     * @param id Trade Id
+     * @return false if the trade is not registered, it already expired or
+     *         was never pending
+     */
+    public boolean cancel(UUID id) {
+        return pending.remove(id) != null;
+    }
+
+    /**
+     * @return number of trades waiting for a response
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Method to start handing the expired trades to the handler
+     * 
+     * @param handler Consumer of the expired Trade Ids
+     */
+    public synchronized void start(Consumer<List<UUID>> handler) {
+        if (expiryThread != null)
+            return;
+        expiryThread = new Thread(() -> expiryLoop(handler), "trade-expiry");
+        expiryThread.setDaemon(true);
+        expiryThread.start();
+    }
+
+    /**
+     * Method to stop the expiry thread
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (expiryThread != null)
+            expiryThread.interrupt();
+    }
+
+    /**
+     * Blocks until the earliest deadline passes, then collects every other
+     * deadline passed by then. Cancelled trades are dropped on the way.
+     */
+    private void expiryLoop(Consumer<List<UUID>> handler) {
+        List<Expiry> due = new ArrayList<>();
+        List<UUID> expired = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                due.add(deadlines.take());
+                deadlines.drainTo(due);
+                for (Expiry expiry : due) {
+                    if (pending.remove(expiry.id, expiry))
+                        expired.add(expiry.id);
+                }
+                if (!expired.isEmpty())
+                    handler.accept(new ArrayList<>(expired));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Exception while expiring " + expired.size() + " trades", e);
+                long retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+                expired.forEach(id -> schedule(id, retryAt));
+            } finally {
+                due.clear();
+                expired.clear();
+            }
+        }
+    }
+
+    private static final class Expiry implements Delayed {
+        private final UUID id;
+        private final long deadline;
+
+        private Expiry(UUID id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadline, ((Expiry) other).deadline);
+        }
+    }
+}
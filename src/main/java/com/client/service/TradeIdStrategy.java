@@ -0,0 +1,11 @@
+package com.client.service;
+
+import java.util.UUID;
+
+/**
+ * Strategy to generate the ids of the new trades
+ */
+public interface TradeIdStrategy {
+
+    UUID nextId();
+}
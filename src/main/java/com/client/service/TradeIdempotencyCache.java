@@ -0,0 +1,123 @@
+package com.client.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.client.entity.Trade;
+import com.client.exception.InvalidIdempotencyKeyException;
+
+/**
+ * In memory cache of the trades submitted with a client order id, in front
+ * of the unique index on the trade table.
+ * Every key holds the future of its trade, so a retried submission waits for
+ * the original one instead of saving and dispatching the trade again.
+ * Keys are evicted in insertion order once they exceed the maximum count,
+ * after which the unique index still catches the duplicates. A key whose
+ * trade is still in flight is not evicted, as its retries must wait for it.
+ */
+@Component
+public class TradeIdempotencyCache {
+
+    /**
+     * Header of the client order id which makes a submission idempotent
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * Maximum length of a client order id, the size of its column
+     */
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Trade>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Claim> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final int maxEntries;
+
+    @Autowired
+    public TradeIdempotencyCache(@Value("${trade.idempotency.cache.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Method to check the client order id received from the client
+     * 
+     * @param key client order id, may be null
+     * @throws InvalidIdempotencyKeyException when the key is blank or too long
+     */
+    public static void checkKey(String key) throws InvalidIdempotencyKeyException {
+        if (key != null && (key.isBlank() || key.length() > MAX_KEY_LENGTH))
+            throw new InvalidIdempotencyKeyException(
+                    HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+    }
+
+    /**
+     * Method to claim the client order id for a new submission
+     * 
+     * @param key    client order id
+     * @param future future of the new trade, completed by the caller
+     * @return future of the trade already submitted with the key,
+     *         or null when the key is claimed by the given future
+     */
+    public CompletableFuture<Trade> putIfAbsent(String key, CompletableFuture<Trade> future) {
+        CompletableFuture<Trade> previous = entries.putIfAbsent(key, future);
+        if (previous == null) {
+            order.offer(new Claim(key, future));
+            if (count.incrementAndGet() > maxEntries)
+                evictOldest();
+        }
+        return previous;
+    }
+
+    /**
+     * Method to release the client order id of a submission which did not
+     * create a trade, so it can be submitted again
+     * 
+     * @param key    client order id
+     * @param future future which claimed the key
+     */
+    public void remove(String key, CompletableFuture<Trade> future) {
+        if (entries.remove(key, future))
+            count.decrementAndGet();
+    }
+
+    /**
+     * @return number of cached client order ids
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOldest() {
+        while (count.get() > maxEntries) {
+            Claim claim = order.poll();
+            if (claim == null)
+                return;
+            if (!claim.future.isDone()) {
+                // in flight, evicted on a later round
+                order.offer(claim);
+                return;
+            }
+            // a released claim is no longer counted
+            if (entries.remove(claim.key, claim.future))
+                count.decrementAndGet();
+        }
+    }
+
+    private static final class Claim {
+
+        private final String key;
+        private final CompletableFuture<Trade> future;
+
+        private Claim(String key, CompletableFuture<Trade> future) {
+            this.key = key;
+            this.future = future;
+        }
+    }
+}
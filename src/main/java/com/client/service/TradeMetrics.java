@@ -0,0 +1,259 @@
+package com.client.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.broker.external.BrokerTrade;
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Component recording the latencies of the trade lifecycle:
+ * submit to persist, persist to broker dispatch, broker round trip
+ * (dispatch to callback) and callback to status write.
+ * Trades are tracked from their persist until the broker response or
+ * their expiry, so the round trip can be tagged by symbol and side.
+ */
+@Component
+public class TradeMetrics {
+
+    static final String SUCCESS = "success";
+    static final String FAILURE = "failure";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer submitToPersist;
+    private final Timer persistToDispatch;
+    private final Timer callbackToStatusWrite;
+    private final Counter rejected;
+    private final Counter expired;
+    private final Counter unmatchedResponses;
+    private final Counter replayed;
+    private final Counter brokerTimeouts;
+    private final Counter brokerRetries;
+    private final Counter brokerRefused;
+    private final Counter archived;
+
+    private final Map<UUID, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TradeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.submitToPersist = timer("trade.submit.persist", "Time from the trade submission until it is persisted");
+        this.persistToDispatch = timer("trade.persist.dispatch",
+                "Time from the persist of the trade until it is handed to the broker");
+        this.callbackToStatusWrite = timer("trade.callback.status.write",
+                "Time from the broker callback until the status is written");
+        this.rejected = Counter.builder("trade.rejected")
+                .description("Trades rejected because the broker dispatch queue or the outbox backlog was full")
+                .register(meterRegistry);
+        this.expired = Counter.builder("trade.expired")
+                .description("Pending trades expired without a broker response")
+                .register(meterRegistry);
+        this.unmatchedResponses = Counter.builder("trade.broker.responses.unmatched")
+                .description("Broker responses for trades which are not tracked, e.g. already expired")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("trade.submissions.replayed")
+                .description("Retried submissions answered with the trade of the original client order id")
+                .register(meterRegistry);
+        this.brokerTimeouts = Counter.builder("trade.broker.attempts.timed.out")
+                .description("Attempts the broker did not respond to within the attempt timeout")
+                .register(meterRegistry);
+        this.brokerRetries = Counter.builder("trade.broker.attempts.retried")
+                .description("Trades sent to the broker again after an attempt timed out")
+                .register(meterRegistry);
+        this.brokerRefused = Counter.builder("trade.broker.circuit.refused")
+                .description("Trades not sent to the broker because its circuit was open")
+                .register(meterRegistry);
+        this.archived = Counter.builder("trade.archived")
+                .description("Final trades moved from the trade table to the trade archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Method to record the persist of a submitted trade and start tracking it
+     * 
+     * @param trade          persisted Trade
+     * @param submittedNanos System.nanoTime() of the submission
+     */
+    public void persisted(Trade trade, long submittedNanos) {
+        long now = System.nanoTime();
+        submitToPersist.record(now - submittedNanos, TimeUnit.NANOSECONDS);
+        inFlight.put(trade.getId(), new InFlight(trade.getSymbol(), trade.getSide(), now));
+    }
+
+    /**
+     * Method to record the hand over of a batch of trades to the broker
+     * 
+     * @param batch BrokerTrades
+     */
+    public void dispatched(List<BrokerTrade> batch) {
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            InFlight trade = inFlight.get(batch.get(i).getId());
+            if (trade != null) {
+                persistToDispatch.record(now - trade.persistedNanos, TimeUnit.NANOSECONDS);
+                trade.dispatchedNanos = now;
+            }
+        }
+    }
+
+    /**
+     * Method to record the broker response of a trade, as the round trip
+     * tagged by symbol, side and outcome
+     * 
+     * @param id      Trade Id
+     * @param outcome SUCCESS or FAILURE
+     */
+    public void responded(UUID id, String outcome) {
+        long now = System.nanoTime();
+        InFlight trade = inFlight.remove(id);
+        if (trade == null || trade.dispatchedNanos == 0) {
+            unmatchedResponses.increment();
+            return;
+        }
+        Timer.builder("trade.broker.round.trip")
+                .description("Time from the hand over of the trade to the broker until its callback")
+                .tag("symbol", String.valueOf(trade.symbol))
+                .tag("side", String.valueOf(trade.side))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(now - trade.dispatchedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Method to record the status write following a broker callback
+     * 
+     * @param callbackNanos System.nanoTime() of the callback
+     */
+    public void statusWritten(long callbackNanos) {
+        callbackToStatusWrite.record(System.nanoTime() - callbackNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Method to record a trade rejected by the broker dispatcher
+     * 
+     * @param id Trade Id
+     */
+    public void rejected(UUID id) {
+        inFlight.remove(id);
+        rejected.increment();
+    }
+
+    /**
+     * Method to record trades rejected before being saved, because the
+     * outbox backlog was full
+     * 
+     * @param count number of trades
+     */
+    public void rejected(int count) {
+        rejected.increment(count);
+    }
+
+    /**
+     * Method to stop tracking a trade whose transaction failed
+     * 
+     * @param id Trade Id
+     */
+    public void discarded(UUID id) {
+        inFlight.remove(id);
+    }
+
+    /**
+     * Method to record a retried submission answered with the original trade
+     */
+    public void replayed() {
+        replayed.increment();
+    }
+
+    /**
+     * Method to record a broker attempt without a response
+     */
+    public void brokerTimedOut() {
+        brokerTimeouts.increment();
+    }
+
+    /**
+     * Method to record a trade sent to the broker again
+     */
+    public void brokerRetried() {
+        brokerRetries.increment();
+    }
+
+    /**
+     * Method to record a trade refused by the open circuit of the broker
+     */
+    public void brokerRefused() {
+        brokerRefused.increment();
+    }
+
+    /**
+     * Method to record the trades moved to the trade archive
+     * 
+     * @param count number of archived trades
+     */
+    public void archived(int count) {
+        archived.increment(count);
+    }
+
+    /**
+     * Method to record the expiry of pending trades
+     * 
+     * @param ids   Trade Ids, tracked ones are no longer waited for
+     * @param count number of trades actually expired
+     */
+    public void expired(Collection<UUID> ids, int count) {
+        ids.forEach(inFlight::remove);
+        expired(count);
+    }
+
+    /**
+     * Method to record the expiry of pending trades which are not tracked,
+     * as they were left from the previous run
+     * 
+     * @param count number of trades actually expired
+     */
+    public void expired(int count) {
+        if (count > 0)
+            expired.increment(count);
+    }
+
+    /**
+     * @return number of trades persisted and waiting for the broker response
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private Timer timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static final class InFlight {
+
+        private final String symbol;
+        private final BrokerTradeSide side;
+        private final long persistedNanos;
+        private volatile long dispatchedNanos;
+
+        private InFlight(String symbol, BrokerTradeSide side, long persistedNanos) {
+            this.symbol = symbol;
+            this.side = side;
+            this.persistedNanos = persistedNanos;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.client.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.broker.external.BrokerTrade;
+import com.client.entity.Trade;
+import com.client.entity.TradeOutbox;
+import com.client.entity.TradeStatus;
+import com.client.respository.TradeOutboxRepository;
+import com.client.respository.TradeRepository;
+
+/**
+ * Relay of the trade outbox to the Broker Dispatcher.
+ * The oldest outbox entries are read in sequence order in batches and the
+ * pending trades are handed to the dispatcher, waiting while its queue is
+ * full. The relayed entries are then deleted by their sequence, which
+ * checkpoints the relay: entries of a batch interrupted by a crash are
+ * relayed again on the next start, so a trade reaches the broker at least
+ * once. No high-water mark of the sequence is kept, the transactions of
+ * the requests may commit their entries out of sequence order.
+ * The backlog of entries not relayed yet is bounded, new trades are rejected
+ * when it is full.
+ */
+@Component
+public class TradeOutboxRelay {
+
+    private static final Logger logger = LogManager.getLogger(TradeOutboxRelay.class);
+
+    /**
+     * Time waited for room in the dispatch queue before trying again
+     */
+    private static final long DISPATCH_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TradeOutboxRepository tradeOutboxRepository;
+    private final TradeRepository tradeRepository;
+    private final BrokerDispatcher brokerDispatcher;
+    private final int batchSize;
+    private final long pollNanos;
+    private final int maxBacklog;
+
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    private volatile Thread relayThread;
+    private volatile boolean running;
+
+    @Autowired
+    public TradeOutboxRelay(TradeOutboxRepository tradeOutboxRepository, TradeRepository tradeRepository,
+            BrokerDispatcher brokerDispatcher,
+            @Value("${trade.outbox.batch-size:256}") int batchSize,
+            @Value("${trade.outbox.poll-millis:50}") long pollMillis,
+            @Value("${trade.outbox.max-backlog:4096}") int maxBacklog) {
+        this.tradeOutboxRepository = tradeOutboxRepository;
+        this.tradeRepository = tradeRepository;
+        this.brokerDispatcher = brokerDispatcher;
+        this.batchSize = batchSize;
+        this.pollNanos = TimeUnit.MILLISECONDS.toNanos(pollMillis);
+        this.maxBacklog = maxBacklog;
+    }
+
+    /**
+     * Method to start relaying, beginning with the entries left by the previous run.
+     * Called before the web server accepts requests, so the outbox only holds
+     * the entries of the previous run when the backlog is seeded.
+     */
+    public synchronized void start() {
+        if (relayThread != null)
+            return;
+        backlog.set((int) tradeOutboxRepository.count());
+        running = true;
+        relayThread = TradeThreads.factory("trade-outbox-relay", false).newThread(this::relayLoop);
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    /**
+     * Method to stop relaying, the entries not relayed yet stay in the outbox
+     * 
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (relayThread != null) {
+            LockSupport.unpark(relayThread);
+            relayThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Method to reserve room in the backlog for new outbox entries
+     * 
+     * @param count number of entries
+     * @return false when the backlog is full and the trades must be rejected
+     */
+    public boolean reserve(int count) {
+        int current;
+        do {
+            current = backlog.get();
+            if (current + count > maxBacklog)
+                return false;
+        } while (!backlog.compareAndSet(current, current + count));
+        return true;
+    }
+
+    /**
+     * Method to give back the room reserved for entries which were not committed
+     * 
+     * @param count number of entries
+     */
+    public void release(int count) {
+        backlog.addAndGet(-count);
+    }
+
+    /**
+     * Method to relay the committed entries now instead of at the next poll
+     */
+    public void wakeUp() {
+        Thread thread = relayThread;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * @return number of outbox entries not relayed yet
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (relayBatch() == 0)
+                    LockSupport.parkNanos(this, pollNanos);
+            } catch (RuntimeException e) {
+                logger.error("Exception while relaying the trade outbox", e);
+                LockSupport.parkNanos(this, pollNanos);
+            }
+        }
+    }
+
+    /**
+     * Relays the next batch of entries and deletes them
+     * 
+     * @return number of relayed entries
+     */
+    private int relayBatch() {
+        List<TradeOutbox> entries = tradeOutboxRepository.findBatch(PageRequest.of(0, batchSize));
+        if (entries.isEmpty())
+            return 0;
+
+        List<UUID> ids = new ArrayList<>(entries.size());
+        entries.forEach(entry -> ids.add(entry.getTradeId()));
+        Map<UUID, Trade> trades = new HashMap<>();
+        tradeRepository.findAllById(ids).forEach(trade -> trades.put(trade.getId(), trade));
+
+        List<Long> relayed = new ArrayList<>(entries.size());
+        for (TradeOutbox entry : entries) {
+            Trade trade = trades.get(entry.getTradeId());
+            if (trade != null && trade.getStatus() == TradeStatus.PENDING_EXECUTION && !handOver(trade))
+                break;
+            relayed.add(entry.getSeq());
+        }
+        if (!relayed.isEmpty()) {
+            tradeOutboxRepository.deleteRelayed(relayed);
+            backlog.addAndGet(-relayed.size());
+        }
+        return relayed.size();
+    }
+
+    /**
+     * Hands the trade to the dispatcher, waiting while its queue is full
+     * 
+     * @return false when the relay stopped before the trade was accepted
+     */
+    private boolean handOver(Trade trade) {
+        BrokerTrade brokerTrade = new BrokerTrade(trade.getId(), trade.getSymbol(), trade.getQuantity(),
+                trade.getSide(), trade.getPrice());
+        while (!brokerDispatcher.submit(brokerTrade)) {
+            if (!running)
+                return false;
+            LockSupport.parkNanos(this, DISPATCH_RETRY_NANOS);
+        }
+        return true;
+    }
+}
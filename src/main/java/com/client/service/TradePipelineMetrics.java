@@ -0,0 +1,89 @@
+package com.client.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.client.broker.AdaptiveConcurrencyLimit;
+import com.client.broker.CircuitBreaker;
+import com.client.journal.TradeJournal;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges of the queues between the trade submission and the final status:
+ * journal records not projected yet, outbox backlog, broker dispatch queue, broker concurrency limit and circuit,
+ * trades waiting for the broker, pending trades
+ * waiting for their expiry, status updates not written yet and the
+ * status cache size.
+ */
+@Component
+public class TradePipelineMetrics implements MeterBinder {
+
+    private final TradeJournal tradeJournal;
+    private final TradeOutboxRelay tradeOutboxRelay;
+    private final BrokerDispatcher brokerDispatcher;
+    private final AdaptiveConcurrencyLimit brokerLimit;
+    private final CircuitBreaker brokerCircuitBreaker;
+    private final TradeMetrics tradeMetrics;
+    private final TradeExpiryQueue tradeExpiryQueue;
+    private final TradeStatusWriteBehind tradeStatusWriteBehind;
+    private final TradeStatusCache tradeStatusCache;
+
+    @Autowired
+    public TradePipelineMetrics(TradeJournal tradeJournal, TradeOutboxRelay tradeOutboxRelay,
+            BrokerDispatcher brokerDispatcher, AdaptiveConcurrencyLimit brokerLimit,
+            CircuitBreaker brokerCircuitBreaker, TradeMetrics tradeMetrics, TradeExpiryQueue tradeExpiryQueue,
+            TradeStatusWriteBehind tradeStatusWriteBehind, TradeStatusCache tradeStatusCache) {
+        this.tradeJournal = tradeJournal;
+        this.tradeOutboxRelay = tradeOutboxRelay;
+        this.brokerDispatcher = brokerDispatcher;
+        this.brokerLimit = brokerLimit;
+        this.brokerCircuitBreaker = brokerCircuitBreaker;
+        this.tradeMetrics = tradeMetrics;
+        this.tradeExpiryQueue = tradeExpiryQueue;
+        this.tradeStatusWriteBehind = tradeStatusWriteBehind;
+        this.tradeStatusCache = tradeStatusCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (tradeJournal.isEnabled())
+            Gauge.builder("trade.journal.lag", tradeJournal, TradeJournal::getLag)
+                    .description("Bytes of durable journal records not applied to the database yet")
+                    .baseUnit("bytes")
+                    .register(registry);
+        Gauge.builder("trade.outbox.backlog", tradeOutboxRelay, TradeOutboxRelay::getBacklog)
+                .description("Saved trades not handed to the broker dispatcher yet")
+                .register(registry);
+        Gauge.builder("trade.dispatch.queue.depth", brokerDispatcher, BrokerDispatcher::getQueueDepth)
+                .description("Trades waiting to be handed to the broker")
+                .register(registry);
+        Gauge.builder("trade.dispatch.queue.remaining", brokerDispatcher, BrokerDispatcher::getRemainingCapacity)
+                .description("Trades the broker dispatch queue can still accept")
+                .register(registry);
+        Gauge.builder("trade.broker.limit", brokerLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Trades allowed in flight at the broker")
+                .register(registry);
+        Gauge.builder("trade.broker.limit.in.flight", brokerLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Broker attempts in flight under the concurrency limit")
+                .register(registry);
+        Gauge.builder("trade.broker.circuit.state", brokerCircuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("State of the broker circuit, 0 closed, 1 open, 2 half open")
+                .register(registry);
+        Gauge.builder("trade.broker.in.flight", tradeMetrics, TradeMetrics::getInFlightCount)
+                .description("Trades persisted and waiting for the broker response")
+                .register(registry);
+        Gauge.builder("trade.pending", tradeExpiryQueue, TradeExpiryQueue::getPendingCount)
+                .description("Trades pending execution")
+                .register(registry);
+        Gauge.builder("trade.status.write.behind.pending", tradeStatusWriteBehind,
+                TradeStatusWriteBehind::getPendingCount)
+                .description("Status updates not written to the database yet")
+                .register(registry);
+        Gauge.builder("trade.status.cache.size", tradeStatusCache, cache -> cache.getStats().getSize())
+                .description("Trades held in the status cache")
+                .register(registry);
+    }
+}
@@ -1,195 +1,750 @@
 package com.client.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Scope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.broker.external.BrokerTrade;
 import com.broker.external.BrokerTradeSide;
-import com.broker.external.ExternalBroker;
 import com.client.entity.Trade;
+import com.client.entity.TradeOutbox;
+import com.client.entity.TradeStatus;
+import com.client.exception.InvalidCursorException;
+import com.client.exception.InvalidTradeQueryException;
+import com.client.exception.TradeBatchTooLargeException;
 import com.client.exception.TradeCreationException;
 import com.client.exception.TradeNotFoundException;
+import com.client.exception.TradeRejectedException;
+import com.client.journal.TradeJournal;
+import com.client.journal.TradeJournalProjector;
+import com.client.pojo.BatchTradeResult;
+import com.client.pojo.CacheStatsDTO;
+import com.client.pojo.PositionDTO;
+import com.client.pojo.PositionTotals;
 import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeCursor;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradePage;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.ArchivedTradeRepository;
+import com.client.respository.TradeJdbcRepository;
+import com.client.respository.TradeOutboxRepository;
 import com.client.respository.TradeRepository;
 
 /**
  * Service class to create, update or get the trades
- * Implements CommandLineRunner to initiate a TimerTask in the background
- * to update the Idle Trades.
+ * Implements SmartLifecycle to expire the Idle Trades left from the
+ * previous run and register the pending ones for expiry before the web
+ * server accepts any request.
  */
 @Service
-@Scope("prototype")
-public class TradeService implements CommandLineRunner {
+public class TradeService implements SmartLifecycle {
 
     @Autowired
     TradeRepository tradeRepository;
 
     /**
-     * Instance for BrokerReponseCallBack
+     * Final trades moved out of the trade table by the TradeArchiver, the id
+     * lookups fall through to
+     */
+    @Autowired
+    ArchivedTradeRepository archivedTradeRepository;
+
+    /**
+     * Dispatcher which hands the trades over to the External Broker
+     */
+    @Autowired
+    BrokerDispatcher brokerDispatcher;
+
+    /**
+     * Write behind queue for the status updates from the broker
+     */
+    @Autowired
+    TradeStatusWriteBehind tradeStatusWriteBehind;
+
+    /**
+     * Cache of the latest trade status served to the status polls
+     */
+    @Autowired
+    TradeStatusCache tradeStatusCache;
+
+    /**
+     * Deadlines of the pending trades
+     */
+    @Autowired
+    TradeExpiryQueue tradeExpiryQueue;
+
+    /**
+     * Applies the final status of the pending trades
+     */
+    @Autowired
+    TradeStatusUpdater tradeStatusUpdater;
+
+    @Autowired
+    TradeJdbcRepository tradeJdbcRepository;
+
+    @Autowired
+    TradeOutboxRepository tradeOutboxRepository;
+
+    /**
+     * Hands the trades of the outbox to the Broker Dispatcher
+     */
+    @Autowired
+    TradeOutboxRelay tradeOutboxRelay;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    /**
+     * Write ahead journal of the trades, used instead of the direct inserts
+     * when enabled
      */
-    BrokerResponseCallBack brokerResponseCallBack = new BrokerResponseCallBack();
+    @Autowired
+    TradeJournal tradeJournal;
 
     /**
-     * Instance for External Broker which accepts the trades
+     * Projector of the journal, replaying the records of the previous run
+     * before the pending trades are registered
      */
-    ExternalBroker externalBroker = new ExternalBroker(brokerResponseCallBack);
+    @Autowired
+    TradeJournalProjector tradeJournalProjector;
 
     /**
-     * Trade status constants
+     * Latencies and counters of the trade lifecycle
      */
-    private static final String PENDING_EXECUTION = "PENDING_EXECUTION";
-    private static final String EXECUTED = "EXECUTED";
-    private static final String NOT_EXECUTED = "NOT_EXECUTED";
+    @Autowired
+    TradeMetrics tradeMetrics;
 
     /**
-     * Scheduler Time to run which will updated Idle trades
-     * which are not updated after 2 mins
+     * Positions per symbol kept up to date with the trades
      */
-    private static final int MINUTES = 180000;
+    @Autowired
+    PositionBook positionBook;
+
+    /**
+     * Trades submitted with a client order id, to answer the retries
+     */
+    @Autowired
+    TradeIdempotencyCache tradeIdempotencyCache;
+
+    @Autowired
+    Validator validator;
+
+    /**
+     * Maximum number of trades accepted in a single batch
+     */
+    @Value("${trade.batch.max-size:50000}")
+    int maxBatchSize;
+
+    private static final Logger logger = LogManager.getLogger(TradeService.class);
+
+    /**
+     * Reason for the trades rejected by the Broker Dispatcher
+     */
+    private static final String REJECTED_REASON = "broker dispatch queue full";
+
+    /**
+     * Time after which a pending trade is considered idle
+     */
+    private static final long IDLE_MILLIS = 120000;
+
+    /**
+     * Maximum number of idle trades expired in a single update
+     */
+    static final int EXPIRY_CHUNK_SIZE = 1000;
+
+    /**
+     * Reason for the idle trades
+     */
+    static final String EXPIRED_REASON = "trade expired";
+
+    /**
+     * Maximum number of trades returned in a single page
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Lifecycle phase of the startup, ahead of the web server which starts
+     * in phase Integer.MAX_VALUE - 1
+     */
+    static final int STARTUP_PHASE = Integer.MAX_VALUE - 2;
+
+    private volatile boolean running;
 
     /**
      * Method to save the Trade
+     * The trade and its outbox entry are saved in a single transaction, the
+     * TradeOutboxRelay then hands it to the broker off the request thread.
+     * In journal mode the trade is only appended to the TradeJournal, it is
+     * saved with its outbox entry by the TradeJournalProjector.
+     * When the outbox backlog is full the trade is rejected without being saved.
      * 
      * @param trade Trade
      * @param side  BrokderTradeSide BUY/SELL
      * @return newly created Trade
+     * @throws TradeRejectedException
      */
-    public Trade saveTrade(Trade trade, BrokerTradeSide side) throws TradeCreationException{
-        trade.setStatus(PENDING_EXECUTION);
+    public Trade saveTrade(Trade trade, BrokerTradeSide side) throws TradeCreationException, TradeRejectedException {
+        long submitted = System.nanoTime();
+        trade.setStatus(TradeStatus.PENDING_EXECUTION);
         trade.setSide(side);
         trade.setTimeStamp(new Date());
-        Trade newTrade = tradeRepository.save(trade);
-        execute(newTrade);
-        return newTrade;
+        if (tradeJournal.isEnabled()) {
+            trade.setId(IdGenerator.newId());
+            trade.setReason(null);
+            return journal(submitted, Collections.singletonList(trade)).get(0);
+        }
+        return persist(1, submitted, () -> {
+            Trade newTrade = tradeRepository.saveAndFlush(trade);
+            tradeOutboxRepository.save(new TradeOutbox(newTrade.getId(), newTrade.getTimeStamp()));
+            return Collections.singletonList(newTrade);
+        }).get(0);
+    }
+
+    /**
+     * Method to save the Trade submitted with a client order id.
+     * A retried submission returns the trade of the original one, waiting for
+     * it when it is still in progress, without saving or dispatching the trade
+     * again. Keys evicted from the idempotency cache are caught by the unique
+     * index, or in journal mode by a lookup before the trade is journaled.
+     * A rejected trade releases its key so it can be submitted again.
+     * 
+     * @param trade         Trade
+     * @param side          BrokderTradeSide BUY/SELL
+     * @param clientOrderId idempotency key of the client, may be null
+     * @return newly created Trade or the one of the original submission
+     * @throws TradeRejectedException
+     */
+    public Trade saveTrade(Trade trade, BrokerTradeSide side, String clientOrderId)
+            throws TradeCreationException, TradeRejectedException {
+        if (clientOrderId == null)
+            return saveTrade(trade, side);
+
+        while (true) {
+            CompletableFuture<Trade> claim = new CompletableFuture<>();
+            CompletableFuture<Trade> original = tradeIdempotencyCache.putIfAbsent(clientOrderId, claim);
+            if (original == null)
+                return saveClaimedTrade(trade, side, clientOrderId, claim);
+            try {
+                Trade originalTrade = original.join();
+                tradeMetrics.replayed();
+                return originalTrade;
+            } catch (CompletionException | CancellationException e) {
+                // the original submission did not create the trade, claim the key again
+            }
+        }
+    }
+
+    private Trade saveClaimedTrade(Trade trade, BrokerTradeSide side, String clientOrderId,
+            CompletableFuture<Trade> claim) throws TradeCreationException, TradeRejectedException {
+        try {
+            if (tradeJournal.isEnabled()) {
+                Optional<Trade> original = tradeRepository.findByClientOrderId(clientOrderId);
+                if (original.isPresent()) {
+                    claim.complete(original.get());
+                    tradeMetrics.replayed();
+                    return original.get();
+                }
+            }
+            trade.setClientOrderId(clientOrderId);
+            Trade newTrade = saveTrade(trade, side);
+            claim.complete(newTrade);
+            return newTrade;
+        } catch (DataIntegrityViolationException e) {
+            Optional<Trade> original = tradeRepository.findByClientOrderId(clientOrderId);
+            if (original.isEmpty()) {
+                release(clientOrderId, claim, e);
+                throw e;
+            }
+            claim.complete(original.get());
+            tradeMetrics.replayed();
+            return original.get();
+        } catch (TradeCreationException | RuntimeException e) {
+            release(clientOrderId, claim, e);
+            throw e;
+        }
+    }
+
+    private void release(String clientOrderId, CompletableFuture<Trade> claim, Throwable cause) {
+        tradeIdempotencyCache.remove(clientOrderId, claim);
+        claim.completeExceptionally(cause);
+    }
+
+    /**
+     * Method to save a batch of Trades.
+     * Trades are validated in one pass, the valid ones are inserted in a single
+     * JDBC batch and transaction and then queued for the broker together.
+     * The whole batch is rejected when the outbox backlog can not take it.
+     * 
+     * @param trades Trades with their side
+     * @return BatchTradeResult with the id or the error of every trade, in order
+     * @throws TradeBatchTooLargeException
+     * @throws TradeRejectedException
+     */
+    public List<BatchTradeResult> saveTrades(List<Trade> trades)
+            throws TradeBatchTooLargeException, TradeRejectedException {
+        long submitted = System.nanoTime();
+        if (trades.size() > maxBatchSize)
+            throw new TradeBatchTooLargeException("batch must not contain more than " + maxBatchSize + " trades");
+
+        List<BatchTradeResult> results = new ArrayList<>(trades.size());
+        List<Trade> accepted = new ArrayList<>(trades.size());
+        Date timeStamp = new Date();
+        for (int i = 0; i < trades.size(); i++) {
+            Trade trade = trades.get(i);
+            String error = validate(trade);
+            if (error != null) {
+                results.add(new BatchTradeResult(i, null, error));
+                continue;
+            }
+            trade.setId(IdGenerator.newId());
+            trade.setStatus(TradeStatus.PENDING_EXECUTION);
+            trade.setReason(null);
+            trade.setTimeStamp(timeStamp);
+            accepted.add(trade);
+            results.add(new BatchTradeResult(i, trade.getId(), null));
+        }
+        if (accepted.isEmpty())
+            return results;
+
+        if (tradeJournal.isEnabled()) {
+            journal(submitted, accepted);
+            return results;
+        }
+        persist(accepted.size(), submitted, () -> {
+            tradeJdbcRepository.insertTrades(accepted);
+            tradeJdbcRepository.insertOutbox(accepted);
+            return accepted;
+        });
+        return results;
+    }
+
+    /**
+     * Method to persist new pending trades along with their outbox entries in
+     * a single transaction, once room is reserved in the outbox backlog.
+     * The trades are registered before the commit, as the relay only sees the
+     * committed entries and must not hand a trade to the broker before it is
+     * known here. They are discarded if the transaction fails.
+     * 
+     * @param count     number of trades
+     * @param submitted System.nanoTime() of the submission
+     * @param insert    inserts the trades and their outbox entries
+     * @return persisted Trades
+     * @throws TradeRejectedException when the outbox backlog is full
+     */
+    private List<Trade> persist(int count, long submitted, Supplier<List<Trade>> insert)
+            throws TradeRejectedException {
+        if (!tradeOutboxRelay.reserve(count)) {
+            tradeMetrics.rejected(count);
+            throw new TradeRejectedException(TradeRejectedException.DEFAULT_ERROR_MESSAGE);
+        }
+        List<Trade> registered = new ArrayList<>(count);
+        List<Trade> trades;
+        try {
+            trades = transactionTemplate.execute(status -> {
+                List<Trade> inserted = insert.get();
+                for (Trade trade : inserted) {
+                    register(trade, submitted);
+                    registered.add(trade);
+                }
+                return inserted;
+            });
+        } catch (RuntimeException e) {
+            tradeOutboxRelay.release(count);
+            registered.forEach(this::discard);
+            throw e;
+        }
+        trades.forEach(this::cacheStatus);
+        tradeOutboxRelay.wakeUp();
+        return trades;
+    }
+
+    /**
+     * Method to append new pending trades to the journal and wait until
+     * they are durable, once room is reserved in the outbox backlog.
+     * The trades are registered before the append like in persist, the
+     * projector may save them and the relay hand them to the broker as soon
+     * as they are durable. When the journal fails while waiting, the trades
+     * stay registered as they may be in the journal already.
+     * 
+     * @param submitted System.nanoTime() of the submission
+     * @param trades    Trades with their ids assigned
+     * @return journaled Trades
+     * @throws TradeRejectedException when the outbox backlog is full
+     */
+    private List<Trade> journal(long submitted, List<Trade> trades) throws TradeRejectedException {
+        if (!tradeOutboxRelay.reserve(trades.size())) {
+            tradeMetrics.rejected(trades.size());
+            throw new TradeRejectedException(TradeRejectedException.DEFAULT_ERROR_MESSAGE);
+        }
+        trades.forEach(trade -> register(trade, submitted));
+        long position;
+        try {
+            position = tradeJournal.append(trades);
+        } catch (RuntimeException e) {
+            tradeOutboxRelay.release(trades.size());
+            trades.forEach(this::discard);
+            throw e;
+        }
+        tradeJournal.awaitDurable(position);
+        trades.forEach(this::cacheStatus);
+        return trades;
+    }
+
+    private void register(Trade trade, long submitted) {
+        tradeMetrics.persisted(trade, submitted);
+        positionBook.pending(trade);
+        tradeExpiryQueue.schedule(trade.getId(), trade.getTimeStamp().getTime() + IDLE_MILLIS);
+    }
+
+    private void discard(Trade trade) {
+        tradeMetrics.discarded(trade.getId());
+        positionBook.discard(trade);
+        tradeExpiryQueue.cancel(trade.getId());
+    }
+
+    /**
+     * Method to undo the registration of a journaled trade the projector
+     * dropped, as its client order id is taken by another trade
+     */
+    private void dropJournaled(Trade trade) {
+        discard(trade);
+        tradeStatusCache.removePending(trade.getId());
+    }
+
+    /**
+     * Method to register a persisted pending trade for expiry and queue it
+     * on the Broker Dispatcher directly, for the trades inserted without
+     * an outbox entry by the reactive profile.
+     * A trade rejected by the dispatcher is marked as NOT_EXECUTED.
+     * 
+     * @param trade     persisted Trade
+     * @param submitted System.nanoTime() of the submission
+     * @throws TradeRejectedException when the dispatch queue is full
+     */
+    public void dispatch(Trade trade, long submitted) throws TradeRejectedException {
+        tradeMetrics.persisted(trade, submitted);
+        positionBook.pending(trade);
+        tradeExpiryQueue.schedule(trade.getId(), trade.getTimeStamp().getTime() + IDLE_MILLIS);
+        cacheStatus(trade);
+        try {
+            execute(trade);
+        } catch (TradeRejectedException e) {
+            tradeMetrics.rejected(trade.getId());
+            tradeStatusUpdater.write(
+                    new TradeStatusUpdate(trade.getId(), TradeStatus.NOT_EXECUTED, REJECTED_REASON, new Date()));
+            throw e;
+        }
     }
 
     /**
-     * Method to get the Trade by Id
+     * Validates a Trade of a batch
+     * 
+     * @return the first violation as "field message" or null if the trade is valid
+     */
+    private String validate(Trade trade) {
+        if (trade == null)
+            return "trade must not be null";
+        Set<ConstraintViolation<Trade>> violations = validator.validate(trade);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Trade> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (trade.getSide() == null)
+            return "side must not be null";
+        return null;
+    }
+
+    /**
+     * Method to get the Trade by Id, from the trade archive when it is not
+     * in the trade table
      * 
      * @param id Trade Id
-     * @return Trade
+     * @return TradeDTO
      * @throws TradeNotFoundException
      */
-    public Trade getTrade(String id) throws TradeNotFoundException {
-        Optional<Trade> optionalTrade = tradeRepository.getById(id);
+    public TradeDTO getTrade(UUID id) throws TradeNotFoundException {
+        Optional<TradeDTO> optionalTrade = tradeRepository.findDTOById(id)
+                .or(() -> archivedTradeRepository.findDTOById(id));
 
         return optionalTrade.orElseThrow(() -> new TradeNotFoundException("Not Found"));
     }
 
     /**
-     * Method to get the all trades
+     * Method to get a page of trades ordered by (timeStamp, id).
+     * Uses the keyset of the last returned trade instead of an offset
+     * so every page costs the same regardless of its position.
+     * 
+     * @param after encoded cursor of the previous page, null for the first page
+     * @param limit requested page size, capped to MAX_PAGE_SIZE
+     * @return TradePage with the trades and the cursor of the next page
+     * @throws InvalidCursorException
+     */
+    @Transactional(readOnly = true)
+    public TradePage getTrades(String after, int limit) throws InvalidCursorException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TradeCursor cursor = TradeCursor.decode(after);
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+
+        List<TradeDTO> trades = cursor == null ? tradeRepository.findPage(pageRequest)
+                : tradeRepository.findPageAfter(cursor.getTimeStamp(), cursor.getId(), pageRequest);
+
+        String nextCursor = trades.size() == pageSize ? TradeCursor.of(trades.get(trades.size() - 1)).encode()
+                : null;
+        return new TradePage(trades, nextCursor);
+    }
+
+    /**
+     * Method to get a page of the trades matching the query ordered by
+     * (timeStamp, id), with only the requested fields of every trade.
+     * 
+     * @param query filters and fields of the trades
+     * @param after encoded cursor of the previous page, null for the first page
+     * @param limit requested page size, capped to MAX_PAGE_SIZE
+     * @return TradeRowPage with the trades and the cursor of the next page
+     * @throws InvalidCursorException
+     * @throws InvalidTradeQueryException
+     */
+    @Transactional(readOnly = true)
+    public TradeRowPage getTrades(TradeQuery query, String after, int limit)
+            throws InvalidCursorException, InvalidTradeQueryException {
+        query.validate();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        return tradeJdbcRepository.findTrades(query, TradeCursor.decode(after), pageSize);
+    }
+
+    /**
+     * Method to stream all the trades to the given consumer one by one.
+     * The trades are projections which the persistence context does not
+     * hold, so it does not grow with the table size.
      * 
-     * @return List of Trades
+     * @param consumer Consumer of the Trades
      */
-    public List<Trade> getAllTrades() {
-        return tradeRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllTrades(Consumer<TradeDTO> consumer) {
+        try (Stream<TradeDTO> trades = tradeRepository.streamAll()) {
+            trades.forEach(consumer);
+        }
     }
 
     /**
-     * Method to get the status of a Trade by Id
+     * Method to get the status of a Trade by Id.
+     * Served from the status cache, then from the updates not written yet
+     * and only then from the status column in the database, falling
+     * through to the trade archive. Trades read from the database are not
+     * loaded into the cache, the cache only misses the final trades it
+     * evicted.
      * 
      * @param id Trade Id
      * @return StatusDTO
+     * @throws TradeNotFoundException
+     */
+    public StatusDTO getTradeStatus(UUID id) throws TradeNotFoundException {
+        TradeStatusUpdate update = tradeStatusCache.get(id);
+        if (update == null)
+            update = tradeStatusWriteBehind.getPending(id);
+        if (update != null)
+            return new StatusDTO(update.getStatus());
+
+        return new StatusDTO(tradeRepository.findStatusById(id)
+                .or(() -> archivedTradeRepository.findStatusById(id))
+                .orElseThrow(() -> new TradeNotFoundException("Not Found")));
+    }
+
+    /**
+     * Method to get the latest status of a Trade by Id, with its reason,
+     * looked up like getTradeStatus. The status read from the database is
+     * loaded into the status cache.
+     * 
+     * @param id Trade Id
+     * @return TradeStatusUpdate
+     * @throws TradeNotFoundException
+     */
+    public TradeStatusUpdate getTradeStatusUpdate(UUID id) throws TradeNotFoundException {
+        TradeStatusUpdate update = tradeStatusCache.get(id);
+        if (update == null)
+            update = tradeStatusWriteBehind.getPending(id);
+        if (update != null)
+            return update;
+
+        update = tradeRepository.findStatusUpdateById(id)
+                .or(() -> archivedTradeRepository.findStatusUpdateById(id))
+                .orElseThrow(() -> new TradeNotFoundException("Not Found"));
+        tradeStatusCache.load(update);
+
+        return update;
+    }
+
+    /**
+     * Method to get the position of every symbol
+     * 
+     * @return PositionDTO with the totals per status of every symbol
      */
-    public StatusDTO getTradeStatus(String id) {
-        Trade trade = getTrade(id);
+    public List<PositionDTO> getPositions() {
+        return positionBook.getPositions();
+    }
 
-        return new StatusDTO(trade.getStatus());
+    /**
+     * Method to get the counters of the status cache
+     * 
+     * @return CacheStatsDTO
+     */
+    public CacheStatsDTO getStatusCacheStats() {
+        return tradeStatusCache.getStats();
     }
 
     /**
-     * Method to call the External Broker execute method to
+     * Method to queue the trade on the Broker Dispatcher to
      * submit the trade for execution
      * 
      * @param trade Trade
+     * @throws TradeRejectedException when the dispatch queue is full
      */
-    public void execute(Trade trade) {
-        externalBroker.execute(
-                new BrokerTrade(UUID.fromString(trade.getId()), trade.getSymbol(), trade.getQuantity(), trade.getSide(),
+    public void execute(Trade trade) throws TradeRejectedException {
+        boolean accepted = brokerDispatcher.submit(
+                new BrokerTrade(trade.getId(), trade.getSymbol(), trade.getQuantity(), trade.getSide(),
                         trade.getPrice()));
+        if (!accepted)
+            throw new TradeRejectedException(TradeRejectedException.DEFAULT_ERROR_MESSAGE);
     }
 
     /**
-     * Method to update the TradeStatus By Id.
-     * This will be used by BrokerCallBackResponse to update the Trade after
-     * successfull execution
+     * Method to update the TradeStatus By Id after successfull execution.
      * 
      * @param uuid UUID
      */
     public void updateTradeStatus(UUID uuid) {
-        Trade trade = getTrade(uuid.toString());
-        trade.setStatus(EXECUTED);
-        trade.setTimeStamp(new Date());
-        tradeRepository.save(trade);
+        tradeStatusUpdater.executed(uuid);
     }
 
     /**
-     * Method to update the TradeStatus By Id with reason
-     * This will be used by BrokerCallBackResponse to update the Trade after
-     * Unsuccesfull execution
+     * Method to update the TradeStatus By Id with reason after
+     * Unsuccesfull execution.
      * 
      * @param uuid UUID
      */
     public void updateTradeStatus(UUID uuid, String reason) {
-        Trade trade = getTrade(uuid.toString());
-        trade.setStatus(NOT_EXECUTED);
-        trade.setTimeStamp(new Date());
-        trade.setReason(reason);
-        tradeRepository.save(trade);
+        tradeStatusUpdater.notExecuted(uuid, reason);
     }
 
-    /**
-     * Method to indentify the trades which are not executed
-     * fore more than 2mins.
-     * 
-     * @return
-     */
-    public List<Trade> findIdleTrades() {
-        return tradeRepository.findIdleTrades();
+    private void cacheStatus(Trade trade) {
+        tradeStatusCache.put(new TradeStatusUpdate(trade.getId(), trade.getStatus(), trade.getReason(),
+                trade.getTimeStamp()));
     }
 
     /**
      * Method to update the Idle Trades in the Database.
      * Trades which are created but not executed by external borkder with the status
-     * more than 2mins. Will be filtered from database and updated.
+     * more than 2mins are expired with bulk updates of at most EXPIRY_CHUNK_SIZE
+     * trades, each one committed on its own.
      * 
+     * @return number of expired trades
      */
-    public void updateIdleTrades() {
-        List<Trade> trades = findIdleTrades();
-        if (trades != null && !trades.isEmpty() && trades.size() > 0)
-            trades.forEach(t -> {
-                t.setStatus(NOT_EXECUTED);
-                t.setReason("trade expired");
-            });
-        tradeRepository.saveAll(trades);
+    public int updateIdleTrades() {
+        Date cutoff = idleCutoff();
+        int expired = 0;
+        int updated;
+        do {
+            updated = tradeRepository.expireIdleTrades(cutoff, EXPIRY_CHUNK_SIZE);
+            expired += updated;
+        } while (updated == EXPIRY_CHUNK_SIZE);
 
+        if (expired > 0)
+            tradeStatusCache.expirePending(cutoff, TradeStatus.NOT_EXECUTED, EXPIRED_REASON);
+        tradeMetrics.expired(expired);
+        return expired;
     }
 
     /**
-     * Run method to initiate a Timer Task to update the Idle Trades
-     * Runs for Every 3 mins
+     * Method to expire the given pending trades.
      * 
-     * @param args
-     * @throws Exception
+     * @param ids Trade Ids
+     * @return number of expired trades
+     */
+    public int expireTrades(List<UUID> ids) {
+        int expired = tradeStatusUpdater.expireTrades(ids);
+        tradeMetrics.expired(ids, expired);
+        return expired;
+    }
+
+    private Date idleCutoff() {
+        return new Date(System.currentTimeMillis() - IDLE_MILLIS);
+    }
+
+    /**
+     * Start method to apply the journal records left from the previous run,
+     * to expire the Idle Trades left from the previous run, to
+     * rebuild the positions from the trade table and the trade archive and
+     * to register the remaining pending trades on
+     * the TradeExpiryQueue, which expires each of them exactly when it is
+     * idle for 2 mins. The outbox relay then starts with the trades the
+     * previous run did not hand to the broker.
+     * All of it is done before the web server starts, so no trade is
+     * registered while the positions are rebuilt and the outbox backlog is
+     * counted.
      */
     @Override
-    public void run(String... args) throws Exception {
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() { // Function runs every MINUTES minutes.
-                updateIdleTrades();
-            }
-        }, MINUTES, MINUTES);
+    public void start() {
+        tradeJournalProjector.start(this::dropJournaled);
+        int expired = updateIdleTrades();
+        List<Trade> pendingTrades = tradeRepository.findPendingTrades();
+        List<PositionTotals> totals = new ArrayList<>(tradeRepository.findPositionTotals());
+        totals.addAll(archivedTradeRepository.findPositionTotals());
+        positionBook.rebuild(totals, pendingTrades);
+        pendingTrades.forEach(trade -> {
+            tradeStatusCache.load(new TradeStatusUpdate(trade.getId(), trade.getStatus(), trade.getReason(),
+                    trade.getTimeStamp()));
+            tradeExpiryQueue.schedule(trade.getId(), trade.getTimeStamp().getTime() + IDLE_MILLIS);
+        });
+        tradeExpiryQueue.start(this::expireTrades);
+        tradeOutboxRelay.start();
+        logger.info("Expired " + expired + " idle trades, waiting for " + pendingTrades.size() + " pending trades");
+        running = true;
+    }
+
+    /**
+     * Stop method, the expiry queue, the outbox relay and the journal
+     * projector are stopped on their own when they are destroyed
+     */
+    @Override
+    public void stop() {
+        running = false;
+    }
 
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return STARTUP_PHASE;
     }
 }
@@ -0,0 +1,187 @@
+package com.client.service;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.client.entity.TradeStatus;
+import com.client.pojo.CacheStatsDTO;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * In memory cache of the latest status of the trades, written through on
+ * trade creation and on the broker responses.
+ * Pending trades are kept until they reach a final status. Trades in a final
+ * status are evicted in insertion order once they exceed the maximum count
+ * or outlive the time to live.
+ */
+@Component
+public class TradeStatusCache {
+
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<UUID> terminalOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger terminalCount = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final int maxTerminalEntries;
+    private final long terminalTtlMillis;
+
+    @Autowired
+    public TradeStatusCache(@Value("${trade.status.cache.max-terminal-entries:100000}") int maxTerminalEntries,
+            @Value("${trade.status.cache.terminal-ttl-millis:60000}") long terminalTtlMillis) {
+        this.maxTerminalEntries = maxTerminalEntries;
+        this.terminalTtlMillis = terminalTtlMillis;
+    }
+
+    /**
+     * Method to get the cached status of the trade
+     * 
+     * @param id Trade Id
+     * @return TradeStatusUpdate or null when the trade is not cached
+     */
+    public TradeStatusUpdate get(UUID id) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.terminal && entry.isExpired(System.currentTimeMillis(), terminalTtlMillis)) {
+            evict(id, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.update;
+    }
+
+    /**
+     * Method to write the latest status of the trade.
+     * A trade in a final status keeps it, e.g. a broker response
+     * arriving before the pending status of the new trade is cached, and
+     * a pending trade keeps the pending status cached first.
+     * 
+     * @param update TradeStatusUpdate
+     */
+    public void put(TradeStatusUpdate update) {
+        Entry entry = new Entry(update, System.currentTimeMillis());
+        Entry previous;
+        do {
+            previous = entries.get(update.getId());
+            if (previous != null && !previous.update.getStatus().canTransitionTo(update.getStatus()))
+                return;
+        } while (previous == null ? entries.putIfAbsent(update.getId(), entry) != null
+                : !entries.replace(update.getId(), previous, entry));
+        if (entry.terminal && (previous == null || !previous.terminal)) {
+            terminalOrder.offer(update.getId());
+            terminalCount.incrementAndGet();
+        }
+        if (entry.terminal)
+            evictTerminal(entry.cachedAt);
+    }
+
+    /**
+     * Method to cache the status loaded from the database, unless a
+     * newer status was written meanwhile
+     * 
+     * @param update TradeStatusUpdate
+     */
+    public void load(TradeStatusUpdate update) {
+        Entry entry = new Entry(update, System.currentTimeMillis());
+        if (entries.putIfAbsent(update.getId(), entry) == null && entry.terminal) {
+            terminalOrder.offer(update.getId());
+            terminalCount.incrementAndGet();
+            evictTerminal(entry.cachedAt);
+        }
+    }
+
+    /**
+     * Method to forget a pending trade which was never saved
+     * 
+     * @param id Trade Id
+     */
+    public void removePending(UUID id) {
+        entries.computeIfPresent(id, (key, entry) -> entry.terminal ? entry : null);
+    }
+
+    /**
+     * Method to move the cached pending trades created before the cutoff
+     * to the given status, following a bulk update in the database
+     * 
+     * @param cutoff creation time before which the pending trades are updated
+     * @param status new status
+     * @param reason new reason
+     */
+    public void expirePending(Date cutoff, TradeStatus status, String reason) {
+        entries.forEach((id, entry) -> {
+            if (!entry.terminal && entry.update.getTimeStamp().before(cutoff)) {
+                Entry expired = new Entry(new TradeStatusUpdate(id, status, reason, entry.update.getTimeStamp()),
+                        System.currentTimeMillis());
+                if (entries.replace(id, entry, expired)) {
+                    terminalOrder.offer(id);
+                    terminalCount.incrementAndGet();
+                }
+            }
+        });
+        evictTerminal(System.currentTimeMillis());
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the cache
+     */
+    public CacheStatsDTO getStats() {
+        return new CacheStatsDTO(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * Evicts the oldest trades in a final status while they are expired
+     * or above the maximum count. Ids whose entry is gone or no longer
+     * final are dropped from the order on the way.
+     */
+    private void evictTerminal(long now) {
+        UUID id;
+        while ((id = terminalOrder.peek()) != null) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.terminal && terminalCount.get() <= maxTerminalEntries
+                    && !entry.isExpired(now, terminalTtlMillis))
+                return;
+            id = terminalOrder.poll();
+            if (id == null)
+                return;
+            entry = entries.get(id);
+            if (entry != null && entry.terminal)
+                evict(id, entry);
+        }
+    }
+
+    private void evict(UUID id, Entry entry) {
+        if (entries.remove(id, entry)) {
+            terminalCount.decrementAndGet();
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry {
+        private final TradeStatusUpdate update;
+        private final long cachedAt;
+        private final boolean terminal;
+
+        private Entry(TradeStatusUpdate update, long cachedAt) {
+            this.update = update;
+            this.cachedAt = cachedAt;
+            this.terminal = update.getStatus().isTerminal();
+        }
+
+        private boolean isExpired(long now, long ttlMillis) {
+            return now - cachedAt >= ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.client.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.client.exception.TradeNotFoundException;
+import com.client.pojo.TradeStatusUpdate;
+
+/**
+ * Component pushing the status of the trades to the SSE subscribers, so the
+ * clients get the final status as soon as the broker response or the expiry
+ * applies it instead of polling.
+ * Every subscriber has a bounded buffer drained by the push threads, a
+ * subscriber which does not keep up is disconnected once its buffer is full.
+ * The buffer holds the current status of every subscribed trade on top of
+ * the configured buffer size, so the first events never fill it.
+ */
+@Component
+@Profile("!reactive")
+public class TradeStatusPublisher {
+
+    private static final Logger logger = LogManager.getLogger(TradeStatusPublisher.class);
+
+    private static final String STATUS_EVENT = "status";
+
+    private final TradeStatusUpdater tradeStatusUpdater;
+    private final TradeService tradeService;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final int pushThreads;
+
+    private final ConcurrentHashMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService pushExecutor;
+
+    @Autowired
+    public TradeStatusPublisher(TradeStatusUpdater tradeStatusUpdater, TradeService tradeService,
+            @Value("${trade.status.push.buffer-size:256}") int bufferSize,
+            @Value("${trade.status.push.timeout-millis:180000}") long timeoutMillis,
+            @Value("${trade.status.push.threads:4}") int pushThreads) {
+        this.tradeStatusUpdater = tradeStatusUpdater;
+        this.tradeService = tradeService;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.pushThreads = pushThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        pushExecutor = Executors.newFixedThreadPool(pushThreads, TradeThreads.factory("status-push", false));
+        tradeStatusUpdater.addListener(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        pushExecutor.shutdown();
+        pushExecutor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Method to subscribe to the status of the trades.
+     * The current status of every trade is sent first, then the final status
+     * of the pending ones as soon as it is applied. The stream completes once
+     * every trade has its final status.
+     * 
+     * @param ids Trade Ids
+     * @return SseEmitter sending a "status" event per status change
+     * @throws TradeNotFoundException when one of the trades does not exist
+     */
+    public SseEmitter subscribe(Collection<UUID> ids) throws TradeNotFoundException {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        ids.forEach(id -> subscribers.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        try {
+            List<TradeStatusUpdate> current = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                current.add(tradeService.getTradeStatusUpdate(id));
+            }
+            current.forEach(subscriber::deliver);
+        } catch (TradeNotFoundException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * @return number of trades with subscribers waiting for their status
+     */
+    public int getSubscribedCount() {
+        return subscribers.size();
+    }
+
+    private void publish(TradeStatusUpdate update) {
+        Set<Subscriber> subscribed = subscribers.get(update.getId());
+        if (subscribed == null)
+            return;
+        subscribed.forEach(subscriber -> subscriber.deliver(update));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.ids.forEach(id -> subscribers.computeIfPresent(id, (key, subscribed) -> {
+            subscribed.remove(subscriber);
+            return subscribed.isEmpty() ? null : subscribed;
+        }));
+    }
+
+    /**
+     * Subscription of a single client, with the trades still waiting for
+     * their final status and the events not sent yet
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final List<UUID> ids;
+        private final Set<UUID> pending;
+        private final BlockingQueue<TradeStatusUpdate> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean finished;
+
+        private Subscriber(SseEmitter emitter, Collection<UUID> ids) {
+            this.emitter = emitter;
+            this.ids = new ArrayList<>(ids);
+            this.pending = new HashSet<>(ids);
+            this.buffer = new ArrayBlockingQueue<>(this.ids.size() + bufferSize);
+        }
+
+        /**
+         * Queues the status unless the trade already got its final status,
+         * and disconnects the subscriber when its buffer is full
+         */
+        private synchronized void deliver(TradeStatusUpdate update) {
+            if (closed || !pending.contains(update.getId()))
+                return;
+            if (update.getStatus().isTerminal())
+                pending.remove(update.getId());
+            if (!buffer.offer(update)) {
+                logger.info("Disconnecting slow status subscriber of " + ids.size() + " trades");
+                unsubscribe(this);
+                buffer.clear();
+                emitter.completeWithError(new IllegalStateException("status subscriber buffer full"));
+                return;
+            }
+            if (pending.isEmpty()) {
+                finished = true;
+                unsubscribe(this);
+            }
+            if (draining.compareAndSet(false, true))
+                pushExecutor.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                TradeStatusUpdate update;
+                while ((update = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event().name(STATUS_EVENT).data(update, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true))
+                pushExecutor.execute(this::drain);
+            else if (finished && buffer.isEmpty())
+                emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.client.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.client.entity.TradeStatus;
+import com.client.journal.TradeJournal;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeRepository;
+
+/**
+ * Component applying the final status of the pending trades, either from a
+ * broker response or from the expiry of the trade.
+ * Singleton shared by the broker callback and the TradeService so a broker
+ * response costs a cache write and a queued update, nothing more.
+ * In journal mode the updates are appended to the TradeJournal instead.
+ * A broker response and the expiry of a trade race on its registration in
+ * the TradeExpiryQueue, only the one removing it applies the final status,
+ * so no lock is taken. A new cancel path has to claim the trade the same way.
+ */
+@Component
+public class TradeStatusUpdater {
+
+    private static final Logger logger = LogManager.getLogger(TradeStatusUpdater.class);
+
+    private final TradeRepository tradeRepository;
+    private final TradeStatusCache tradeStatusCache;
+    private final TradeStatusWriteBehind tradeStatusWriteBehind;
+    private final TradeExpiryQueue tradeExpiryQueue;
+    private final TradeJournal tradeJournal;
+    private final List<Consumer<TradeStatusUpdate>> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public TradeStatusUpdater(TradeRepository tradeRepository, TradeStatusCache tradeStatusCache,
+            TradeStatusWriteBehind tradeStatusWriteBehind, TradeExpiryQueue tradeExpiryQueue,
+            TradeJournal tradeJournal) {
+        this.tradeRepository = tradeRepository;
+        this.tradeStatusCache = tradeStatusCache;
+        this.tradeStatusWriteBehind = tradeStatusWriteBehind;
+        this.tradeExpiryQueue = tradeExpiryQueue;
+        this.tradeJournal = tradeJournal;
+    }
+
+    /**
+     * Method to mark the trade as executed
+     * 
+     * @param id Trade Id
+     * @return false if the trade is no longer pending
+     */
+    public boolean executed(UUID id) {
+        return write(new TradeStatusUpdate(id, TradeStatus.EXECUTED, null, new Date()));
+    }
+
+    /**
+     * Method to mark the trade as not executed
+     * 
+     * @param id     Trade Id
+     * @param reason reason given by the broker
+     * @return false if the trade is no longer pending
+     */
+    public boolean notExecuted(UUID id, String reason) {
+        return write(new TradeStatusUpdate(id, TradeStatus.NOT_EXECUTED, reason, new Date()));
+    }
+
+    /**
+     * Writes the status through the cache and queues it for the database.
+     * Updates for trades which are no longer pending, because they expired
+     * meanwhile, are ignored.
+     * 
+     * @param update TradeStatusUpdate
+     * @return false if the trade is no longer pending
+     */
+    public boolean write(TradeStatusUpdate update) {
+        if (!tradeExpiryQueue.cancel(update.getId())) {
+            logger.info("Ignoring status update for trade which is not pending :" + update.getId());
+            return false;
+        }
+        tradeStatusCache.put(update);
+        if (tradeJournal.isEnabled())
+            tradeJournal.append(update);
+        else
+            tradeStatusWriteBehind.enqueue(update);
+        notifyListeners(update);
+        return true;
+    }
+
+    /**
+     * Method to register a listener of the final status of the pending trades.
+     * The listener runs on the thread applying the status and must not block.
+     * 
+     * @param listener Consumer of the TradeStatusUpdates
+     */
+    public void addListener(Consumer<TradeStatusUpdate> listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyListeners(TradeStatusUpdate update) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).accept(update);
+        }
+    }
+
+    /**
+     * Method to expire the given pending trades.
+     * This will be used by the TradeExpiryQueue once their deadline passed.
+     * In journal mode the expiries are appended to the journal and every
+     * trade counts as expired. On both paths only the status and the reason
+     * of the trade change in the database, its time stamp is kept.
+     * 
+     * @param ids Trade Ids
+     * @return number of expired trades
+     */
+    public int expireTrades(List<UUID> ids) {
+        int expired = 0;
+        if (!tradeJournal.isEnabled()) {
+            for (int from = 0; from < ids.size(); from += TradeService.EXPIRY_CHUNK_SIZE) {
+                expired += tradeRepository.expireTrades(
+                        ids.subList(from, Math.min(from + TradeService.EXPIRY_CHUNK_SIZE, ids.size())));
+            }
+        }
+        Date now = new Date();
+        for (UUID id : ids) {
+            TradeStatusUpdate update = new TradeStatusUpdate(id, TradeStatus.NOT_EXECUTED, TradeService.EXPIRED_REASON,
+                    now);
+            if (tradeJournal.isEnabled()) {
+                tradeJournal.append(update);
+                expired++;
+            }
+            tradeStatusCache.put(update);
+            notifyListeners(update);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,141 @@
+package com.client.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeJdbcRepository;
+
+/**
+ * Write behind queue for the Trade status updates coming from the broker.
+ * Updates are coalesced per trade id and written as one JDBC batch once
+ * the batch size is reached or the flush interval elapses.
+ */
+@Component
+public class TradeStatusWriteBehind {
+
+    private static final Logger logger = LogManager.getLogger(TradeStatusWriteBehind.class);
+
+    private final ConcurrentHashMap<UUID, TradeStatusUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final TradeJdbcRepository tradeJdbcRepository;
+    private final int batchSize;
+    private final long flushMillis;
+
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public TradeStatusWriteBehind(TradeJdbcRepository tradeJdbcRepository,
+            @Value("${trade.status.write-behind.batch-size:500}") int batchSize,
+            @Value("${trade.status.write-behind.flush-millis:50}") long flushMillis) {
+        this.tradeJdbcRepository = tradeJdbcRepository;
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+    }
+
+    /**
+     * Method to start the periodic flush
+     */
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-status-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to stop the periodic flush and write the remaining updates
+     * 
+     * @throws InterruptedException
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        flush();
+    }
+
+    /**
+     * Method to queue the status update. A queued update of the same trade
+     * which is not written yet is replaced.
+     * 
+     * @param update TradeStatusUpdate
+     */
+    public void enqueue(TradeStatusUpdate update) {
+        pending.put(update.getId(), update);
+        if (pending.size() >= batchSize && flusher != null && flushRequested.compareAndSet(false, true))
+            flusher.execute(this::flush);
+    }
+
+    /**
+     * Method to get the queued update of the trade which is not written yet
+     * 
+     * @param id Trade Id
+     * @return TradeStatusUpdate or null
+     */
+    public TradeStatusUpdate getPending(UUID id) {
+        return pending.get(id);
+    }
+
+    /**
+     * @return number of trades with an update waiting to be written
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Method to write the queued updates in batches of batchSize.
+     * A failed batch is queued again unless a newer update arrived meanwhile.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        while (!pending.isEmpty()) {
+            List<TradeStatusUpdate> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (UUID id : pending.keySet()) {
+                TradeStatusUpdate update = pending.remove(id);
+                if (update != null)
+                    batch.add(update);
+                if (batch.size() == batchSize)
+                    break;
+            }
+            if (batch.isEmpty())
+                return;
+
+            try {
+                int ignored = 0;
+                for (int count : tradeJdbcRepository.updateStatuses(batch)) {
+                    if (count == 0)
+                        ignored++;
+                }
+                if (ignored > 0)
+                    logger.info("Ignored " + ignored + " status updates for trades which are not pending");
+            } catch (RuntimeException e) {
+                logger.error("Exception while writing " + batch.size() + " trade status updates", e);
+                batch.forEach(update -> pending.putIfAbsent(update.getId(), update));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.client.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Factory of the threads running the blocking trade paths, either platform
+ * threads or virtual threads. Virtual threads are looked up at runtime so the
+ * service still runs on JVMs without them, falling back to platform threads.
+ */
+public final class TradeThreads {
+
+    private static final Logger logger = LogManager.getLogger(TradeThreads.class);
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private TradeThreads() {
+    }
+
+    /**
+     * @return true if the JVM supports virtual threads
+     */
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Method to get a factory of named threads
+     * 
+     * @param prefix  thread name prefix
+     * @param virtual true for virtual threads, when the JVM supports them
+     * @return ThreadFactory of daemon platform threads or of virtual threads
+     */
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual) {
+            if (isVirtualSupported())
+                return virtualFactory(prefix);
+            logger.warn("Virtual threads are not supported by this JVM, using platform threads for " + prefix);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Method to get an executor starting a new thread for every task
+     * 
+     * @param prefix  thread name prefix
+     * @param virtual true for virtual threads, when the JVM supports them
+     * @return ExecutorService with a virtual thread per task, or a cached
+     *         pool of platform threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix, boolean virtual) {
+        ThreadFactory factory = factory(prefix, virtual);
+        if (virtual && isVirtualSupported()) {
+            try {
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to create the virtual thread executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    private static ThreadFactory virtualFactory(String prefix) {
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, prefix + "-", 1L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create the virtual thread factory", e);
+        }
+    }
+}
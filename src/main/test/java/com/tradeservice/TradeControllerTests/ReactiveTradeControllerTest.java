@@ -0,0 +1,127 @@
+package com.tradeservice.TradeControllerTests;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.controller.ReactiveTradeController;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.exception.TradeNotFoundException;
+import com.client.exception.TradeRejectedException;
+import com.client.pojo.StatusDTO;
+import com.client.pojo.TradePage;
+import com.client.service.ReactiveTradeService;
+import com.client.service.TradeService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for ReactiveTradeController
+ */
+@RunWith(SpringRunner.class)
+@WebFluxTest(ReactiveTradeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveTradeControllerTest {
+
+    @MockBean
+    ReactiveTradeService reactiveTradeService;
+
+    @MockBean
+    TradeService tradeService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private UUID tradeId = UUID.fromString("5d9242c0-6f17-461b-96cc-34442bb8b249");
+
+    private Trade trade() {
+        return new Trade(tradeId, 1000, "EUR/USD", BrokerTradeSide.BUY, BigDecimal.valueOf(1.25),
+                TradeStatus.PENDING_EXECUTION, null, new Date());
+    }
+
+    @Test
+    public void test_createBuyTrade() {
+        when(reactiveTradeService.saveTrade(any(Trade.class), eq(BrokerTradeSide.BUY), isNull()))
+                .thenReturn(Mono.just(trade()));
+
+        webTestClient.post().uri("/api/buy").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"symbol\":\"EUR/USD\",\"quantity\":1000,\"price\":1.25}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().value("Location", Matchers.endsWith("/api/trades/" + tradeId + "/status"));
+    }
+
+    @Test
+    public void test_createTradeInvalidInput() {
+        webTestClient.post().uri("/api/sell").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"symbol\":\"EUR/USD\",\"quantity\":0,\"price\":1.25}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message")
+                .isEqualTo("quantity must be greater than 0 and less than or equal to 1M");
+    }
+
+    @Test
+    public void test_createTradeRejected() {
+        when(reactiveTradeService.saveTrade(any(Trade.class), eq(BrokerTradeSide.SELL), isNull()))
+                .thenReturn(Mono.error(new TradeRejectedException(TradeRejectedException.DEFAULT_ERROR_MESSAGE)));
+
+        webTestClient.post().uri("/api/sell").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"symbol\":\"EUR/USD\",\"quantity\":1000,\"price\":1.25}")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1");
+    }
+
+    @Test
+    public void test_getTradesPage() {
+        when(reactiveTradeService.getTrades(null, 1))
+                .thenReturn(Mono.just(new TradePage(Collections.singletonList(trade()), "next")));
+
+        webTestClient.get().uri("/api/trades?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("next-cursor", "next")
+                .expectBody().jsonPath("$[0].id").isEqualTo(tradeId.toString());
+    }
+
+    @Test
+    public void test_getTradeStatusWaitsForPendingTrade() {
+        when(reactiveTradeService.getTradeStatus(tradeId, Duration.ofMillis(500)))
+                .thenReturn(Mono.just(new StatusDTO(TradeStatus.EXECUTED)));
+
+        webTestClient.get().uri("/api/trades/" + tradeId + "/status?waitMillis=500")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.status").isEqualTo("EXECUTED");
+    }
+
+    @Test
+    public void test_getTradeNotFound() {
+        when(reactiveTradeService.getTrade(tradeId)).thenReturn(Mono.error(new TradeNotFoundException("Not Found")));
+
+        webTestClient.get().uri("/api/trades/" + tradeId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -1,21 +1,32 @@
 package com.tradeservice.TradeControllerTests;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -28,9 +39,20 @@ import org.springframework.test.web.servlet.MvcResult;
 import com.broker.external.BrokerTradeSide;
 import com.client.controller.TradeController;
 import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.exception.InvalidTradeQueryException;
 import com.client.exception.TradeCreationException;
+import com.client.exception.TradeRejectedException;
+import com.client.pojo.BatchTradeResult;
+import com.client.pojo.CacheStatsDTO;
 import com.client.pojo.StatusDTO;
+import com.client.pojo.TradeCursor;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradePage;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
 import com.client.service.TradeService;
+import com.client.service.TradeStatusPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -46,10 +68,13 @@ public class TradeControllerTest {
     @MockBean
     TradeService tradeService;
 
+    @MockBean
+    TradeStatusPublisher tradeStatusPublisher;
+
     @Autowired
     private MockMvc mockMvc;
 
-    private String tradeId = "5d9242c0-6f17-461b-96cc-34442bb8b249";
+    private UUID tradeId = UUID.fromString("5d9242c0-6f17-461b-96cc-34442bb8b249");
 
     private static ObjectMapper mapper = new ObjectMapper();
 
@@ -63,10 +88,10 @@ public class TradeControllerTest {
     public void test_createSellTrade() throws Exception {
 
         Trade trade = new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.SELL, BigDecimal.valueOf(1.25), "PENDING_FOR_EXECUTION", null,
+                BrokerTradeSide.SELL, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null,
                 new Date());
 
-        when(tradeService.saveTrade(trade, BrokerTradeSide.SELL)).thenReturn(trade);
+        when(tradeService.saveTrade(trade, BrokerTradeSide.SELL, null)).thenReturn(trade);
 
         String json = mapper.writeValueAsString(trade);
         MvcResult mvcResult = mockMvc
@@ -75,7 +100,7 @@ public class TradeControllerTest {
                 .andExpect(status().isCreated()).andReturn();
 
         assertTrue(mvcResult.getResponse().getHeader("location").length() > 0);
-        assertTrue(mvcResult.getResponse().getHeader("location").contains(tradeId));
+        assertTrue(mvcResult.getResponse().getHeader("location").contains(tradeId.toString()));
 
     }
 
@@ -89,10 +114,10 @@ public class TradeControllerTest {
     public void test_createBuyTrade() throws Exception {
 
         Trade trade = new Trade(tradeId, Long.valueOf(15), "EUR/USD",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), "PENDING_FOR_EXECUTION", null,
+                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), TradeStatus.PENDING_EXECUTION, null,
                 new Date());
 
-        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY)).thenReturn(trade);
+        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY, null)).thenReturn(trade);
 
         String json = mapper.writeValueAsString(trade);
         MvcResult mvcResult = mockMvc
@@ -101,25 +126,116 @@ public class TradeControllerTest {
                 .andExpect(status().isCreated()).andReturn();
 
         assertTrue(mvcResult.getResponse().getHeader("location").length() > 0);
-        assertTrue(mvcResult.getResponse().getHeader("location").contains(tradeId));
+        assertTrue(mvcResult.getResponse().getHeader("location").contains(tradeId.toString()));
     }
 
     /**
-     * Test case for end point "/api/trades/{tradeId}"
+     * Test case for end point "/api/buy" when the broker dispatch queue is full
      * 
      * @throws Exception
      */
     @Test
-    public void test_getTrade() throws Exception {
+    public void test_createBuyTrade_rejected() throws Exception {
+
+        Trade trade = new Trade(tradeId, Long.valueOf(15), "EUR/USD",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), TradeStatus.PENDING_EXECUTION, null,
+                new Date());
+
+        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY, null))
+                .thenThrow(new TradeRejectedException(TradeRejectedException.DEFAULT_ERROR_MESSAGE));
+
+        String json = mapper.writeValueAsString(trade);
+        mockMvc.perform(post("/api/buy").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+                .content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message", Matchers.equalTo(TradeRejectedException.DEFAULT_ERROR_MESSAGE)));
+    }
+
+    /**
+     * Test case for end point "/api/buy" retried with the same Idempotency-Key
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_createBuyTrade_idempotencyKey() throws Exception {
 
         Trade trade = new Trade(tradeId, Long.valueOf(15), "EUR/USD",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), "PENDING_FOR_EXECUTION", null,
+                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), TradeStatus.PENDING_EXECUTION, null,
                 new Date());
 
+        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY, "order-42")).thenReturn(trade);
+
+        String json = mapper.writeValueAsString(trade);
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/buy").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+                    .header("Idempotency-Key", "order-42").content(json).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("location", Matchers.endsWith("/api/trades/" + tradeId + "/status")));
+        }
+    }
+
+    /**
+     * Test case for end point "/api/buy" with a too long Idempotency-Key
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_createBuyTrade_invalidIdempotencyKey() throws Exception {
+
+        Trade trade = new Trade(tradeId, Long.valueOf(15), "EUR/USD",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), TradeStatus.PENDING_EXECUTION, null,
+                new Date());
+
+        String json = mapper.writeValueAsString(trade);
+        mockMvc.perform(post("/api/buy").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+                .header("Idempotency-Key", "k".repeat(65)).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test case for end point "/api/trades/batch"
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_createTrades() throws Exception {
+        Trade buy = new Trade(null, Long.valueOf(15), "EUR/USD",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), null, null, null);
+        Trade sell = new Trade(null, Long.valueOf(15), "EUR/USD",
+                BrokerTradeSide.SELL, BigDecimal.valueOf(0), null, null, null);
+
+        when(tradeService.saveTrades(List.of(buy, sell))).thenReturn(List.of(
+                new BatchTradeResult(0, tradeId, null),
+                new BatchTradeResult(1, null, "price must be greater than 0")));
+
+        String json = mapper.writeValueAsString(List.of(buy, sell));
+        mockMvc.perform(post("/api/trades/batch").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+                .content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[0].id", Matchers.equalTo(tradeId.toString())))
+                .andExpect(jsonPath("$[0].location", Matchers.containsString(tradeId + "/status")))
+                .andExpect(jsonPath("$[1].error", Matchers.equalTo("price must be greater than 0")))
+                .andExpect(jsonPath("$[1].location", Matchers.nullValue()));
+    }
+
+    /**
+     * Test case for end point "/api/trades/{tradeId}"
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_getTrade() throws Exception {
+
+        TradeDTO trade = new TradeDTO(tradeId, 15, "EUR/USD",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(2.25), TradeStatus.PENDING_EXECUTION, null,
+                new Date(), null);
+
         when(tradeService.getTrade(tradeId)).thenReturn(trade);
 
         mockMvc.perform(get("/api/trades/" + tradeId)).andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", Matchers.equalTo(tradeId)));
+                .andExpect(jsonPath("$.id", Matchers.equalTo(tradeId.toString())));
     }
 
     /**
@@ -131,14 +247,78 @@ public class TradeControllerTest {
     @Test
     public void test_getAllTrades() throws Exception {
         List<Trade> trades = Stream.of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "PENDING_EXECUTION", null, new Date()))
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, new Date()))
                 .collect(Collectors.toList());
 
-        when(tradeService.getAllTrades()).thenReturn(trades);
+        when(tradeService.getTrades(null, 100)).thenReturn(new TradePage(trades, null));
 
         mockMvc.perform(get("/api/trades")).andExpect(status().isOk())
                 .andExpect(jsonPath("$", Matchers.hasSize(1)))
-                .andExpect(jsonPath("$[0].id", Matchers.equalTo(tradeId)));
+                .andExpect(jsonPath("$[0].id", Matchers.equalTo(tradeId.toString())))
+                .andExpect(header().doesNotExist("next-cursor"));
+    }
+
+    /**
+     * Test case for end point "/api/trades" with a next page
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_getAllTrades_nextCursor() throws Exception {
+        Trade trade = new Trade(tradeId, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, new Date());
+        String cursor = TradeCursor.of(trade).encode();
+
+        when(tradeService.getTrades(cursor, 1)).thenReturn(new TradePage(List.of(trade), cursor));
+
+        mockMvc.perform(get("/api/trades").param("after", cursor).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(header().string("next-cursor", cursor));
+    }
+
+    /**
+     * Test case for end point "/api/trades" with filters and fields
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_getAllTrades_filtered() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", tradeId);
+        row.put("status", TradeStatus.NOT_EXECUTED);
+        ArgumentCaptor<TradeQuery> query = ArgumentCaptor.forClass(TradeQuery.class);
+
+        when(tradeService.getTrades(query.capture(), isNull(), eq(100)))
+                .thenReturn(new TradeRowPage(List.of(row), "next"));
+
+        mockMvc.perform(get("/api/trades").param("symbol", "USD/JPY").param("side", "SELL")
+                .param("status", "NOT_EXECUTED").param("from", "2022-02-14T17:00:00Z")
+                .param("fields", "id,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", Matchers.equalTo(tradeId.toString())))
+                .andExpect(jsonPath("$[0].status", Matchers.equalTo("NOT_EXECUTED")))
+                .andExpect(jsonPath("$[0].symbol").doesNotExist())
+                .andExpect(header().string("next-cursor", "next"));
+
+        assertEquals("USD/JPY", query.getValue().getSymbol());
+        assertEquals(BrokerTradeSide.SELL, query.getValue().getSide());
+        assertEquals(Set.of("id", "status"), query.getValue().getFields());
+        assertNotNull(query.getValue().getFrom());
+    }
+
+    /**
+     * Test case for end point "/api/trades" with an unknown field
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_getAllTrades_unknownField() throws Exception {
+        when(tradeService.getTrades(any(TradeQuery.class), isNull(), eq(100)))
+                .thenThrow(new InvalidTradeQueryException("Unknown field password"));
+
+        mockMvc.perform(get("/api/trades").param("fields", "password"))
+                .andExpect(status().isBadRequest());
     }
 
     /**
@@ -148,7 +328,7 @@ public class TradeControllerTest {
      */
     @Test
     public void test_getTradeStatus() throws Exception {
-        StatusDTO statusDTO = new StatusDTO("NOT_EXECUTED");
+        StatusDTO statusDTO = new StatusDTO(TradeStatus.NOT_EXECUTED);
 
         when(tradeService.getTradeStatus(tradeId)).thenReturn(statusDTO);
 
@@ -156,6 +336,21 @@ public class TradeControllerTest {
                 .andExpect(jsonPath("$.status", Matchers.equalTo("NOT_EXECUTED")));
     }
 
+    /**
+     * Test case for end point "/api/stats/status-cache"
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_getStatusCacheStats() throws Exception {
+        when(tradeService.getStatusCacheStats()).thenReturn(new CacheStatsDTO(8, 2, 1, 5));
+
+        mockMvc.perform(get("/api/stats/status-cache")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", Matchers.equalTo(8)))
+                .andExpect(jsonPath("$.misses", Matchers.equalTo(2)))
+                .andExpect(jsonPath("$.evictions", Matchers.equalTo(1)));
+    }
+
     /**
      * Test case for Trade Quantity validation
      * 
@@ -168,7 +363,7 @@ public class TradeControllerTest {
         trade.setPrice(BigDecimal.valueOf(1.25));
         trade.setQuantity(0);
 
-        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY)).thenReturn(trade);
+        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY, null)).thenReturn(trade);
 
         String json = mapper.writeValueAsString(trade);
         mockMvc.perform(post("/api/buy").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
@@ -189,7 +384,7 @@ public class TradeControllerTest {
         trade.setPrice(BigDecimal.valueOf(0));
         trade.setQuantity(10);
 
-        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY)).thenReturn(trade);
+        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY, null)).thenReturn(trade);
 
         String json = mapper.writeValueAsString(trade);
         mockMvc.perform(post("/api/buy").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
@@ -210,7 +405,7 @@ public class TradeControllerTest {
         trade.setPrice(BigDecimal.valueOf(2.25));
         trade.setQuantity(10);
 
-        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY)).thenReturn(trade);
+        when(tradeService.saveTrade(trade, BrokerTradeSide.BUY, null)).thenReturn(trade);
 
         String json = mapper.writeValueAsString(trade);
         mockMvc.perform(post("/api/buy").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
@@ -219,4 +414,16 @@ public class TradeControllerTest {
                         "$.message", Matchers.equalTo("symbol valid values: USD/JPY, EUR/USD")));
     }
 
+    /**
+     * Test case for end point "/api/trades/status/stream"
+     * Subscription without trade ids
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void test_streamTradeStatusesWithoutIds() throws Exception {
+        mockMvc.perform(get("/api/trades/status/stream").param("ids", ""))
+                .andExpect(status().isBadRequest());
+    }
+
 }
@@ -0,0 +1,77 @@
+package com.tradeservice.TradeControllerTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.json.TradeJsonSerializers;
+import com.client.pojo.StatusDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+public class TradeJsonSerializersTest {
+
+    private final ObjectMapper reflective = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper handWritten = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .registerModule(new SimpleModule()
+                    .addSerializer(new TradeJsonSerializers.TradeSerializer())
+                    .addSerializer(new TradeJsonSerializers.StatusSerializer()));
+
+    private Trade trade(String reason, long millis) {
+        Trade trade = new Trade(UUID.randomUUID(), 1000L, "EUR/USD", BrokerTradeSide.SELL,
+                new BigDecimal("1.1230"), TradeStatus.NOT_EXECUTED, reason, new Date(millis));
+        trade.setClientOrderId("order-1");
+        return trade;
+    }
+
+    @Test
+    public void test_tradeMatchesReflective() throws Exception {
+        for (Trade trade : new Trade[] { trade(null, 1644861305686L), trade("limit \"exceeded\"", 0L),
+                trade("\u00e9", 253402300799999L), trade(null, 951782400005L) }) {
+            String json = handWritten.writeValueAsString(trade);
+            assertEquals(reflective.readTree(reflective.writeValueAsString(trade)), handWritten.readTree(json));
+        }
+    }
+
+    @Test
+    public void test_tradeFieldOrderAndDate() throws Exception {
+        Trade trade = trade(null, 1644861305686L);
+        String json = handWritten.writeValueAsString(trade);
+
+        assertEquals("{\"id\":\"" + trade.getId() + "\",\"quantity\":1000,\"symbol\":\"EUR/USD\",\"side\":\"SELL\""
+                + ",\"price\":1.1230,\"status\":\"NOT_EXECUTED\",\"reason\":null"
+                + ",\"timeStamp\":\"2022-02-14T17:55:05.686+00:00\",\"clientOrderId\":\"order-1\"}", json);
+    }
+
+    @Test
+    public void test_tradeDatesAsTimestamps() throws Exception {
+        String json = handWritten.writer().with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValueAsString(trade(null, 1644861305686L));
+
+        assertTrue(json.contains("\"timeStamp\":1644861305686"));
+    }
+
+    @Test
+    public void test_statusPayloads() throws Exception {
+        for (TradeStatus status : TradeStatus.values()) {
+            StatusDTO dto = new StatusDTO(status);
+            assertEquals(reflective.writeValueAsString(dto), handWritten.writeValueAsString(dto));
+        }
+        assertEquals("{\"status\":null}", handWritten.writeValueAsString(new StatusDTO(null)));
+        assertEquals("[{\"status\":\"EXECUTED\"},{\"status\":\"PENDING_EXECUTION\"}]",
+                handWritten.writeValueAsString(new StatusDTO[] { new StatusDTO(TradeStatus.EXECUTED),
+                        new StatusDTO(TradeStatus.PENDING_EXECUTION) }));
+    }
+}
@@ -0,0 +1,71 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.client.broker.AdaptiveConcurrencyLimit;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private void saturate(AdaptiveConcurrencyLimit limit, int samples, long rttNanos) {
+        for (int i = 0; i < samples; i++) {
+            while (limit.tryAcquire()) {
+            }
+            limit.release(rttNanos, false);
+            while (limit.getInFlight() > 0) {
+                limit.release();
+            }
+        }
+    }
+
+    @Test
+    public void test_tryAcquireBoundedByLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.release();
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    public void test_growsWhileLatencySteady() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 200);
+
+        saturate(limit, 50, RTT);
+
+        assertTrue(limit.getLimit() > 20);
+    }
+
+    @Test
+    public void test_shrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 10, 200);
+        saturate(limit, 20, RTT);
+        int steady = limit.getLimit();
+
+        saturate(limit, 30, 10 * RTT);
+
+        assertTrue(limit.getLimit() < steady);
+    }
+
+    @Test
+    public void test_notGrownWhenIdle() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 200);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(RTT, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+}
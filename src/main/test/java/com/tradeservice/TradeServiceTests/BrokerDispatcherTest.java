@@ -0,0 +1,73 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+import com.broker.external.BrokerTradeSide;
+import com.client.broker.ExternalBrokerGateway;
+import com.client.service.BrokerDispatcher;
+import com.client.service.TradeMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BrokerDispatcherTest {
+
+    private BrokerTrade brokerTrade() {
+        return new BrokerTrade(UUID.randomUUID(), "EUR/USD", 10, BrokerTradeSide.BUY, BigDecimal.valueOf(1.25));
+    }
+
+    @Test
+    public void test_submitRejectedWhenQueueFull() {
+        BrokerDispatcher brokerDispatcher = new BrokerDispatcher(mock(BrokerResponseCallback.class),
+                ExternalBrokerGateway::new, new TradeMetrics(new SimpleMeterRegistry()), 2, 1, 16, 1, false);
+
+        assertTrue(brokerDispatcher.submit(brokerTrade()));
+        assertTrue(brokerDispatcher.submit(brokerTrade()));
+        assertFalse(brokerDispatcher.submit(brokerTrade()));
+        assertEquals(2, brokerDispatcher.getQueueDepth());
+        assertEquals(0, brokerDispatcher.getRemainingCapacity());
+    }
+
+    @Test
+    public void test_workersDrainQueue() throws InterruptedException {
+        BrokerDispatcher brokerDispatcher = new BrokerDispatcher(mock(BrokerResponseCallback.class),
+                ExternalBrokerGateway::new, new TradeMetrics(new SimpleMeterRegistry()), 100, 2, 16, 1, false);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(brokerDispatcher.submit(brokerTrade()));
+        }
+
+        brokerDispatcher.start();
+        brokerDispatcher.stop();
+
+        assertEquals(0, brokerDispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void test_virtualThreadsDeliverCallbacks() throws InterruptedException {
+        BrokerResponseCallback callback = mock(BrokerResponseCallback.class);
+        BrokerDispatcher brokerDispatcher = new BrokerDispatcher(callback, ExternalBrokerGateway::new,
+                new TradeMetrics(new SimpleMeterRegistry()), 100, 2, 16, 1, true);
+        for (int i = 0; i < 30; i++) {
+            assertTrue(brokerDispatcher.submit(brokerTrade()));
+        }
+
+        brokerDispatcher.start();
+        Thread.sleep(2500);
+        brokerDispatcher.stop();
+
+        assertEquals(0, brokerDispatcher.getQueueDepth());
+        verify(callback, atLeastOnce()).successful(any(UUID.class));
+    }
+}
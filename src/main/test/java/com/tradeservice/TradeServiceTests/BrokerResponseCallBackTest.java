@@ -0,0 +1,88 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.client.journal.TradeJournal;
+import com.client.respository.TradeJdbcRepository;
+import com.client.respository.TradeRepository;
+import com.client.service.BrokerResponseCallBack;
+import com.client.service.TradeExpiryQueue;
+import com.client.service.TradeMetrics;
+import com.client.service.TradeStatusCache;
+import com.client.service.TradeStatusUpdater;
+import com.client.service.TradeStatusWriteBehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Regression test for the cost of a broker response. A callback must only
+ * write the status cache and queue the update, so its allocation stays
+ * constant instead of building a new TradeService per call. Its latency is
+ * measured by the BrokerCallbackBenchmark.
+ */
+public class BrokerResponseCallBackTest {
+
+    private static final int WARMUP_CALLBACKS = 20000;
+    private static final int MEASURED_CALLBACKS = 20000;
+
+    /**
+     * Upper bound of the bytes allocated by a single callback
+     */
+    private static final long MAX_BYTES_PER_CALLBACK = 4096;
+
+    @Test
+    public void test_callbackAllocation() {
+        TradeStatusCache tradeStatusCache = new TradeStatusCache(WARMUP_CALLBACKS + MEASURED_CALLBACKS, 60000);
+        TradeStatusWriteBehind tradeStatusWriteBehind = new TradeStatusWriteBehind(mock(TradeJdbcRepository.class),
+                Integer.MAX_VALUE, 60000);
+        TradeExpiryQueue tradeExpiryQueue = new TradeExpiryQueue();
+        BrokerResponseCallBack callback = new BrokerResponseCallBack(new TradeStatusUpdater(
+                mock(TradeRepository.class), tradeStatusCache, tradeStatusWriteBehind, tradeExpiryQueue,
+                mock(TradeJournal.class)),
+                new TradeMetrics(new SimpleMeterRegistry()));
+
+        UUID[] warmup = pendingTrades(tradeExpiryQueue, WARMUP_CALLBACKS);
+        UUID[] measured = pendingTrades(tradeExpiryQueue, MEASURED_CALLBACKS);
+
+        for (int i = 0; i < warmup.length; i++) {
+            respond(callback, warmup[i], i);
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < measured.length; i++) {
+            respond(callback, measured[i], i);
+        }
+        long bytesPerCallback = (threadMXBean.getThreadAllocatedBytes(threadId) - bytesBefore) / MEASURED_CALLBACKS;
+
+        assertEquals(0, tradeExpiryQueue.getPendingCount());
+        assertEquals(WARMUP_CALLBACKS + MEASURED_CALLBACKS, tradeStatusWriteBehind.getPendingCount());
+        assertTrue(bytesPerCallback < MAX_BYTES_PER_CALLBACK, "allocated " + bytesPerCallback + " bytes per callback");
+    }
+
+    private static UUID[] pendingTrades(TradeExpiryQueue tradeExpiryQueue, int count) {
+        UUID[] ids = new UUID[count];
+        long deadline = System.currentTimeMillis() + 60000;
+        for (int i = 0; i < count; i++) {
+            ids[i] = UUID.randomUUID();
+            tradeExpiryQueue.schedule(ids[i], deadline);
+        }
+        return ids;
+    }
+
+    private static void respond(BrokerResponseCallBack callback, UUID id, int i) {
+        if (i % 2 == 0)
+            callback.successful(id);
+        else
+            callback.unsuccessful(id, "No available quotes");
+    }
+}
@@ -0,0 +1,63 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.Test;
+
+import com.client.broker.CircuitBreaker;
+import com.client.broker.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void test_opensOnFailureRate() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(10, 4, 0.5, 60000, 1);
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.recordSuccess();
+
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void test_windowForgetsOldFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(4, 4, 0.5, 60000, 1);
+
+        circuitBreaker.recordFailure();
+        for (int i = 0; i < 6; i++) {
+            circuitBreaker.recordSuccess();
+        }
+        circuitBreaker.recordFailure();
+
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void test_halfOpenTrials() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 2, 0.5, 20, 2);
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        Thread.sleep(40);
+
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRequest());
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.recordFailure();
+        assertEquals(State.OPEN, circuitBreaker.getState());
+
+        Thread.sleep(40);
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordSuccess();
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+    }
+}
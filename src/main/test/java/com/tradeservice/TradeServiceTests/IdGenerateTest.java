@@ -1,9 +1,12 @@
 package com.tradeservice.TradeServiceTests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.UUID;
+
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,12 +14,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.client.service.IdGenerator;
+import com.client.service.TimeOrderedTradeIdStrategy;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class IdGenerateTest {
 
-    private String tradeId = "5d9242c0-6f17-461b-96cc-34442bb8b249";
+    private UUID tradeId = UUID.fromString("5d9242c0-6f17-461b-96cc-34442bb8b249");
 
     @Test
     public void test_idGeneration() {
@@ -27,4 +31,18 @@ public class IdGenerateTest {
 
         assertEquals(tradeId, idGenerator.generate(sharedSessionContractImplementor, o));
     }
+
+    @Test
+    public void test_timeOrderedIdGeneration() throws InterruptedException {
+        TimeOrderedTradeIdStrategy strategy = new TimeOrderedTradeIdStrategy();
+        long before = System.currentTimeMillis();
+        UUID first = strategy.nextId();
+        Thread.sleep(2);
+        UUID second = strategy.nextId();
+
+        assertEquals(7, first.version());
+        assertEquals(2, first.variant());
+        assertTrue((first.getMostSignificantBits() >>> 16) >= before);
+        assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+    }
 }
@@ -0,0 +1,84 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.pojo.PositionDTO;
+import com.client.pojo.PositionTotals;
+import com.client.pojo.StatusTotalsDTO;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.service.PositionBook;
+import com.client.service.TradeStatusUpdater;
+
+public class PositionBookTest {
+
+    private final PositionBook positionBook = new PositionBook(mock(TradeStatusUpdater.class));
+
+    private Trade trade(String symbol, BrokerTradeSide side, long quantity, String price) {
+        return new Trade(UUID.randomUUID(), quantity, symbol, side, new BigDecimal(price),
+                TradeStatus.PENDING_EXECUTION, null, new Date());
+    }
+
+    private StatusTotalsDTO totals(String symbol, TradeStatus status) {
+        return positionBook.getPositions().stream().filter(position -> position.getSymbol().equals(symbol))
+                .findFirst().get().getStatuses().get(status);
+    }
+
+    @Test
+    public void test_pendingTradesMoveToFinalStatus() {
+        Trade buy = trade("EUR/USD", BrokerTradeSide.BUY, 1000, "1.10");
+        Trade sell = trade("EUR/USD", BrokerTradeSide.SELL, 400, "1.20");
+        Trade expired = trade("EUR/USD", BrokerTradeSide.BUY, 10, "1.00");
+        positionBook.pending(buy);
+        positionBook.pending(sell);
+        positionBook.pending(expired);
+
+        positionBook.apply(new TradeStatusUpdate(buy.getId(), TradeStatus.EXECUTED, null, new Date()));
+        positionBook.apply(new TradeStatusUpdate(sell.getId(), TradeStatus.EXECUTED, null, new Date()));
+        positionBook.apply(new TradeStatusUpdate(sell.getId(), TradeStatus.NOT_EXECUTED, "late", new Date()));
+
+        StatusTotalsDTO executed = totals("EUR/USD", TradeStatus.EXECUTED);
+        assertEquals(2, executed.getCount());
+        assertEquals(600, executed.getNetQuantity());
+        assertEquals(0, new BigDecimal("1580.00").compareTo(executed.getNotional()));
+        assertEquals(0, new BigDecimal("620.00").compareTo(executed.getNetNotional()));
+
+        StatusTotalsDTO pending = totals("EUR/USD", TradeStatus.PENDING_EXECUTION);
+        assertEquals(1, pending.getCount());
+        assertEquals(10, pending.getNetQuantity());
+        assertEquals(0, totals("EUR/USD", TradeStatus.NOT_EXECUTED).getCount());
+    }
+
+    @Test
+    public void test_rebuild() {
+        Trade pendingTrade = trade("USD/JPY", BrokerTradeSide.SELL, 5, "110");
+        positionBook.pending(trade("EUR/USD", BrokerTradeSide.BUY, 1, "1"));
+
+        positionBook.rebuild(Arrays.asList(
+                new PositionTotals("USD/JPY", TradeStatus.EXECUTED, BrokerTradeSide.BUY, 3L, 30L, new BigDecimal("3300")),
+                new PositionTotals("USD/JPY", TradeStatus.PENDING_EXECUTION, BrokerTradeSide.SELL, 1L, 5L,
+                        new BigDecimal("550"))),
+                Collections.singletonList(pendingTrade));
+        positionBook.apply(new TradeStatusUpdate(pendingTrade.getId(), TradeStatus.NOT_EXECUTED, "trade expired",
+                new Date()));
+
+        List<PositionDTO> positions = positionBook.getPositions();
+        assertEquals(1, positions.size());
+        assertEquals(3, totals("USD/JPY", TradeStatus.EXECUTED).getCount());
+        assertEquals(30, totals("USD/JPY", TradeStatus.EXECUTED).getNetQuantity());
+        assertEquals(0, totals("USD/JPY", TradeStatus.PENDING_EXECUTION).getCount());
+        assertEquals(-5, totals("USD/JPY", TradeStatus.NOT_EXECUTED).getNetQuantity());
+    }
+}
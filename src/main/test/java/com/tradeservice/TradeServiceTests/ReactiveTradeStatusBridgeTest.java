@@ -0,0 +1,67 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.client.entity.TradeStatus;
+import com.client.journal.TradeJournal;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeJdbcRepository;
+import com.client.respository.TradeRepository;
+import com.client.service.ReactiveTradeStatusBridge;
+import com.client.service.TradeExpiryQueue;
+import com.client.service.TradeStatusCache;
+import com.client.service.TradeStatusUpdater;
+import com.client.service.TradeStatusWriteBehind;
+
+import reactor.core.publisher.Mono;
+
+public class ReactiveTradeStatusBridgeTest {
+
+    private final UUID tradeId = UUID.randomUUID();
+    private final TradeStatusCache tradeStatusCache = new TradeStatusCache(100, 60000);
+    private final TradeExpiryQueue tradeExpiryQueue = new TradeExpiryQueue();
+    private final TradeStatusUpdater tradeStatusUpdater = new TradeStatusUpdater(mock(TradeRepository.class),
+            tradeStatusCache, new TradeStatusWriteBehind(mock(TradeJdbcRepository.class), 100, 60000),
+            tradeExpiryQueue, mock(TradeJournal.class));
+    private final ReactiveTradeStatusBridge bridge = new ReactiveTradeStatusBridge(tradeStatusUpdater,
+            tradeStatusCache);
+
+    @Test
+    public void test_awaitCompletedByBrokerResponse() {
+        bridge.start();
+        tradeExpiryQueue.schedule(tradeId, System.currentTimeMillis() + 60000);
+        Mono<TradeStatusUpdate> status = bridge.awaitFinalStatus(tradeId, Duration.ofSeconds(5)).cache();
+        status.subscribe();
+
+        tradeStatusUpdater.executed(tradeId);
+
+        assertEquals(TradeStatus.EXECUTED, status.block().getStatus());
+        assertEquals(0, bridge.getWaitingCount());
+    }
+
+    @Test
+    public void test_awaitStatusAppliedBefore() {
+        bridge.start();
+        tradeStatusCache
+                .put(new TradeStatusUpdate(tradeId, TradeStatus.NOT_EXECUTED, "No available quotes", new Date()));
+
+        assertEquals(TradeStatus.NOT_EXECUTED,
+                bridge.awaitFinalStatus(tradeId, Duration.ofSeconds(5)).block().getStatus());
+        assertEquals(0, bridge.getWaitingCount());
+    }
+
+    @Test
+    public void test_awaitTimesOut() {
+        bridge.start();
+
+        assertNull(bridge.awaitFinalStatus(tradeId, Duration.ofMillis(10)).block());
+    }
+}
@@ -0,0 +1,113 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.broker.external.BrokerResponseCallback;
+import com.broker.external.BrokerTrade;
+import com.broker.external.BrokerTradeSide;
+import com.client.broker.AdaptiveConcurrencyLimit;
+import com.client.broker.BrokerGateway;
+import com.client.broker.CircuitBreaker;
+import com.client.broker.ResilientBrokerGateway;
+import com.client.service.TradeMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ResilientBrokerGatewayTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final BrokerResponseCallback callback = mock(BrokerResponseCallback.class);
+    private final BrokerGateway broker = mock(BrokerGateway.class);
+    private final AtomicReference<BrokerResponseCallback> brokerCallback = new AtomicReference<>();
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private ResilientBrokerGateway gateway(CircuitBreaker circuitBreaker) {
+        return new ResilientBrokerGateway((responses, brokerScheduler) -> {
+            brokerCallback.set(responses);
+            return broker;
+        }, callback, scheduler, limit, circuitBreaker, new TradeMetrics(new SimpleMeterRegistry()), 100, 3, 1, 5);
+    }
+
+    private BrokerTrade brokerTrade() {
+        return new BrokerTrade(UUID.randomUUID(), "EUR/USD", 10, BrokerTradeSide.BUY, BigDecimal.valueOf(1.25));
+    }
+
+    @Test
+    public void test_responseDeliveredOnce() throws InterruptedException {
+        ResilientBrokerGateway gateway = gateway(new CircuitBreaker(10, 5, 0.5, 1000, 1));
+        BrokerTrade trade = brokerTrade();
+
+        gateway.execute(trade);
+        brokerCallback.get().successful(trade.getId());
+        brokerCallback.get().unsuccessful(trade.getId(), "No available quotes");
+
+        verify(callback).successful(trade.getId());
+        verify(callback, never()).unsuccessful(any(UUID.class), anyString());
+        verify(broker, after(200).times(1)).execute(trade);
+        assertEquals(0, gateway.getPendingCount());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void test_retriedUntilMaxAttempts() throws InterruptedException {
+        ResilientBrokerGateway gateway = gateway(new CircuitBreaker(10, 5, 0.5, 1000, 1));
+        BrokerTrade trade = brokerTrade();
+
+        gateway.execute(trade);
+
+        verify(callback, timeout(1000)).unsuccessful(trade.getId(), "no broker response");
+        verify(broker, times(3)).execute(trade);
+        assertEquals(0, gateway.getPendingCount());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void test_retryAnsweredByBroker() throws InterruptedException {
+        ResilientBrokerGateway gateway = gateway(new CircuitBreaker(10, 5, 0.5, 1000, 1));
+        BrokerTrade trade = brokerTrade();
+
+        gateway.execute(trade);
+        verify(broker, timeout(1000).times(2)).execute(trade);
+        brokerCallback.get().successful(trade.getId());
+
+        verify(callback).successful(trade.getId());
+        verify(callback, after(200).never()).unsuccessful(any(UUID.class), anyString());
+        verify(broker, times(2)).execute(trade);
+    }
+
+    @Test
+    public void test_openCircuitRefusesTrades() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 2, 0.5, 60000, 1);
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        ResilientBrokerGateway gateway = gateway(circuitBreaker);
+        BrokerTrade trade = brokerTrade();
+
+        gateway.execute(trade);
+
+        verify(callback).unsuccessful(trade.getId(), "broker unavailable");
+        verify(broker, never()).execute(any(BrokerTrade.class));
+    }
+}
@@ -0,0 +1,56 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.client.respository.TradeJdbcRepository;
+import com.client.service.TradeArchiver;
+import com.client.service.TradeMetrics;
+
+public class TradeArchiverTest {
+
+    private final TradeJdbcRepository tradeJdbcRepository = mock(TradeJdbcRepository.class);
+    private final TradeMetrics tradeMetrics = mock(TradeMetrics.class);
+
+    @Test
+    public void test_archivesInChunksUntilShort() {
+        Date cutoff = new Date();
+        when(tradeJdbcRepository.archiveTrades(cutoff, 2)).thenReturn(2, 2, 1);
+        TradeArchiver archiver = new TradeArchiver(tradeJdbcRepository, tradeMetrics, false, 60000, 60000, 2);
+
+        assertEquals(5, archiver.archive(cutoff));
+        verify(tradeJdbcRepository, times(3)).archiveTrades(cutoff, 2);
+        verify(tradeMetrics, times(2)).archived(2);
+        verify(tradeMetrics, times(1)).archived(1);
+    }
+
+    @Test
+    public void test_nothingToArchive() {
+        Date cutoff = new Date();
+        TradeArchiver archiver = new TradeArchiver(tradeJdbcRepository, tradeMetrics, false, 60000, 60000, 2);
+
+        assertEquals(0, archiver.archive(cutoff));
+        verify(tradeJdbcRepository, times(1)).archiveTrades(eq(cutoff), eq(2));
+    }
+
+    @Test
+    public void test_disabledDoesNotStart() throws InterruptedException {
+        TradeArchiver archiver = new TradeArchiver(tradeJdbcRepository, tradeMetrics, false, 0, 1, 2);
+        archiver.start();
+        Thread.sleep(20);
+        archiver.stop();
+
+        verify(tradeJdbcRepository, never()).archiveTrades(any(), anyInt());
+    }
+}
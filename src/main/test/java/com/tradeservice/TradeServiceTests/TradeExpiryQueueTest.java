@@ -0,0 +1,47 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.client.service.TradeExpiryQueue;
+
+public class TradeExpiryQueueTest {
+
+    @Test
+    public void test_expiresAtDeadlineUnlessCancelled() throws InterruptedException {
+        TradeExpiryQueue tradeExpiryQueue = new TradeExpiryQueue();
+        UUID cancelled = UUID.randomUUID();
+        UUID due = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        List<UUID> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        long now = System.currentTimeMillis();
+        tradeExpiryQueue.schedule(cancelled, now + 50);
+        tradeExpiryQueue.schedule(due, now + 100);
+        tradeExpiryQueue.schedule(later, now + 60000);
+        assertTrue(tradeExpiryQueue.cancel(cancelled));
+
+        tradeExpiryQueue.start(ids -> {
+            expired.addAll(ids);
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        tradeExpiryQueue.stop();
+
+        assertEquals(List.of(due), expired);
+        assertEquals(1, tradeExpiryQueue.getPendingCount());
+        assertFalse(tradeExpiryQueue.cancel(due));
+        assertTrue(tradeExpiryQueue.cancel(later));
+    }
+}
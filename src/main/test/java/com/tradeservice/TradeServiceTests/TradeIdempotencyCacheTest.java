@@ -0,0 +1,74 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import com.client.entity.Trade;
+import com.client.exception.InvalidIdempotencyKeyException;
+import com.client.service.TradeIdempotencyCache;
+
+public class TradeIdempotencyCacheTest {
+
+    @Test
+    public void test_retryGetsOriginalFuture() {
+        TradeIdempotencyCache cache = new TradeIdempotencyCache(10);
+        CompletableFuture<Trade> original = new CompletableFuture<>();
+
+        assertNull(cache.putIfAbsent("order-1", original));
+        assertSame(original, cache.putIfAbsent("order-1", new CompletableFuture<>()));
+    }
+
+    @Test
+    public void test_removedKeyCanBeClaimedAgain() {
+        TradeIdempotencyCache cache = new TradeIdempotencyCache(10);
+        CompletableFuture<Trade> original = new CompletableFuture<>();
+        cache.putIfAbsent("order-1", original);
+        cache.remove("order-1", original);
+
+        assertNull(cache.putIfAbsent("order-1", new CompletableFuture<>()));
+    }
+
+    @Test
+    public void test_oldestKeyEvicted() {
+        TradeIdempotencyCache cache = new TradeIdempotencyCache(2);
+        cache.putIfAbsent("order-1", CompletableFuture.completedFuture(new Trade()));
+        cache.putIfAbsent("order-2", CompletableFuture.completedFuture(new Trade()));
+        cache.putIfAbsent("order-3", CompletableFuture.completedFuture(new Trade()));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.putIfAbsent("order-1", new CompletableFuture<>()));
+    }
+
+    @Test
+    public void test_inFlightKeyNotEvicted() {
+        TradeIdempotencyCache cache = new TradeIdempotencyCache(1);
+        CompletableFuture<Trade> original = new CompletableFuture<>();
+        cache.putIfAbsent("order-1", original);
+        cache.putIfAbsent("order-2", CompletableFuture.completedFuture(new Trade()));
+
+        assertSame(original, cache.putIfAbsent("order-1", new CompletableFuture<>()));
+    }
+
+    @Test
+    public void test_reclaimedKeyNotEvictedByReleasedClaim() {
+        TradeIdempotencyCache cache = new TradeIdempotencyCache(1);
+        CompletableFuture<Trade> released = CompletableFuture.completedFuture(null);
+        cache.putIfAbsent("order-1", released);
+        cache.remove("order-1", released);
+        CompletableFuture<Trade> reclaimed = CompletableFuture.completedFuture(new Trade());
+        cache.putIfAbsent("order-1", reclaimed);
+
+        assertEquals(1, cache.size());
+        assertSame(reclaimed, cache.putIfAbsent("order-1", new CompletableFuture<>()));
+    }
+
+    @Test(expected = InvalidIdempotencyKeyException.class)
+    public void test_tooLongKey() {
+        TradeIdempotencyCache.checkKey("k".repeat(TradeIdempotencyCache.MAX_KEY_LENGTH + 1));
+    }
+}
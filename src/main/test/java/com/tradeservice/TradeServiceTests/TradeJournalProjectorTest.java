@@ -0,0 +1,144 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.journal.TradeJournal;
+import com.client.journal.TradeJournalProjector;
+import com.client.respository.TradeJdbcRepository;
+import com.client.service.TradeOutboxRelay;
+
+public class TradeJournalProjectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TradeJdbcRepository tradeJdbcRepository = mock(TradeJdbcRepository.class);
+    private final TradeOutboxRelay tradeOutboxRelay = mock(TradeOutboxRelay.class);
+    @SuppressWarnings("unchecked")
+    private final Consumer<Trade> dropped = mock(Consumer.class);
+
+    private TradeJournal journal;
+    private TradeJournalProjector projector;
+
+    private TradeJournal open() throws IOException {
+        journal = spy(new TradeJournal(true, folder.getRoot().getPath(), 4096, true, 1));
+        journal.open();
+        return journal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TradeJournalProjector start() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0))
+                        .doInTransaction(null));
+        projector = new TradeJournalProjector(journal, tradeJdbcRepository, transactionTemplate, tradeOutboxRelay,
+                100, 10);
+        projector.start(dropped);
+        return projector;
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (projector != null)
+            projector.stop();
+        if (journal != null)
+            journal.close();
+    }
+
+    private Trade trade(String clientOrderId) {
+        Trade trade = new Trade(UUID.randomUUID(), 10, "EUR/USD", BrokerTradeSide.SELL, new BigDecimal("1.2500"),
+                TradeStatus.PENDING_EXECUTION, null, new Date());
+        trade.setClientOrderId(clientOrderId);
+        return trade;
+    }
+
+    /**
+     * A batch committed before its checkpoint failed is applied again as a
+     * replay, its trades are not taken for client order id conflicts
+     */
+    @Test
+    public void test_batchCommittedBeforeFailedCheckpointIsReplayed() throws Exception {
+        open();
+        doThrow(new UncheckedIOException(new IOException("disk full"))).doCallRealMethod().when(journal)
+                .checkpoint(anyLong());
+        Trade trade = trade("order-1");
+        when(tradeJdbcRepository.findExistingIds(anyCollection())).thenReturn(Set.of(trade.getId()));
+        start();
+
+        journal.awaitDurable(journal.append(trade));
+
+        verify(journal, timeout(1000).times(2)).checkpoint(anyLong());
+        verify(tradeJdbcRepository, times(1)).insertTrades(anyList());
+        verify(tradeJdbcRepository, times(1)).findExistingIds(anyCollection());
+        verify(tradeOutboxRelay, never()).release(1);
+        verify(dropped, never()).accept(any());
+    }
+
+    @Test
+    public void test_tradeOfTakenClientOrderIdIsDropped() throws Exception {
+        open();
+        Trade trade = trade("order-1");
+        doThrow(new DataIntegrityViolationException("uk_trade_client_order_id")).when(tradeJdbcRepository)
+                .insertTrades(anyList());
+        when(tradeJdbcRepository.isClientOrderIdTaken("order-1", trade.getId())).thenReturn(true);
+        start();
+
+        journal.awaitDurable(journal.append(trade));
+
+        verify(dropped, timeout(1000)).accept(eq(trade));
+        verify(tradeOutboxRelay, times(1)).release(1);
+    }
+
+    /**
+     * Other violations are not dropped trades, the batch is retried
+     */
+    @Test
+    public void test_otherViolationIsRetried() throws Exception {
+        open();
+        Trade trade = trade(null);
+        doThrow(new DataIntegrityViolationException("constraint"))
+                .doThrow(new DataIntegrityViolationException("constraint")).doNothing().when(tradeJdbcRepository)
+                .insertTrades(anyList());
+        start();
+
+        journal.awaitDurable(journal.append(trade));
+
+        verify(journal, timeout(1000)).checkpoint(anyLong());
+        verify(tradeJdbcRepository, timeout(1000)).findExistingIds(anyCollection());
+        verify(tradeOutboxRelay, never()).release(1);
+        verify(dropped, never()).accept(any());
+    }
+}
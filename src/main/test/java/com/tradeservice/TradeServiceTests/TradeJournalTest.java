@@ -0,0 +1,138 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.journal.TradeJournal;
+import com.client.journal.TradeJournalEntry;
+import com.client.pojo.TradeStatusUpdate;
+
+public class TradeJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TradeJournal open(int segmentBytes) throws IOException {
+        TradeJournal journal = new TradeJournal(true, folder.getRoot().getPath(), segmentBytes, true, 1);
+        journal.open();
+        return journal;
+    }
+
+    private Trade trade(String clientOrderId) {
+        Trade trade = new Trade(UUID.randomUUID(), 10, "EUR/USD", BrokerTradeSide.SELL, new BigDecimal("1.2500"),
+                TradeStatus.PENDING_EXECUTION, null, new Date());
+        trade.setClientOrderId(clientOrderId);
+        return trade;
+    }
+
+    private List<TradeJournalEntry> readAll(TradeJournal journal, long from) {
+        List<TradeJournalEntry> entries = new ArrayList<>();
+        journal.read(from, Integer.MAX_VALUE, entries);
+        return entries;
+    }
+
+    @Test
+    public void test_appendedRecordsReadBack() throws Exception {
+        TradeJournal journal = open(4096);
+        Trade trade = trade("order-1");
+        TradeStatusUpdate update = new TradeStatusUpdate(trade.getId(), TradeStatus.NOT_EXECUTED,
+                "No available quotes", new Date());
+
+        journal.append(trade);
+        journal.awaitDurable(journal.append(update));
+        List<TradeJournalEntry> entries = readAll(journal, 0);
+        journal.close();
+
+        assertEquals(2, entries.size());
+        assertEquals(trade, entries.get(0).getTrade());
+        assertNull(entries.get(0).getUpdate());
+        assertEquals(update.getId(), entries.get(1).getUpdate().getId());
+        assertEquals(TradeStatus.NOT_EXECUTED, entries.get(1).getUpdate().getStatus());
+        assertEquals("No available quotes", entries.get(1).getUpdate().getReason());
+        assertEquals(journal.getDurablePosition(), entries.get(1).getNextPosition());
+    }
+
+    @Test
+    public void test_recordsSpanSegments() throws Exception {
+        TradeJournal journal = open(512);
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            trades.add(trade(null));
+        }
+
+        journal.awaitDurable(journal.append(trades));
+        List<TradeJournalEntry> entries = readAll(journal, 0);
+        journal.close();
+
+        assertEquals(trades, entries.stream().map(TradeJournalEntry::getTrade).collect(Collectors.toList()));
+        try (Stream<?> files = Files.list(folder.getRoot().toPath())) {
+            assertTrue(files.count() > 1);
+        }
+    }
+
+    @Test
+    public void test_reopenContinuesAfterCheckpoint() throws Exception {
+        TradeJournal journal = open(512);
+        Trade projected = trade(null);
+        long checkpoint = journal.append(projected);
+        Trade pending = trade(null);
+        long end = journal.append(pending);
+        journal.awaitDurable(end);
+        journal.checkpoint(checkpoint);
+        journal.close();
+
+        TradeJournal reopened = open(512);
+        List<TradeJournalEntry> entries = readAll(reopened, reopened.getCheckpoint());
+        reopened.close();
+
+        assertEquals(checkpoint, reopened.getCheckpoint());
+        assertEquals(end, reopened.getDurablePosition());
+        assertEquals(1, entries.size());
+        assertEquals(pending, entries.get(0).getTrade());
+    }
+
+    @Test
+    public void test_tornRecordDropped() throws Exception {
+        TradeJournal journal = open(4096);
+        Trade trade = trade(null);
+        long end = journal.append(trade);
+        journal.awaitDurable(end);
+        journal.close();
+        // a length without its record, as left by a crash during the append
+        try (RandomAccessFile file = new RandomAccessFile(
+                folder.getRoot().toPath().resolve(String.format("%020d.log", 0)).toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(100);
+            file.writeInt(12345);
+        }
+
+        TradeJournal reopened = open(4096);
+        Trade next = trade(null);
+        reopened.awaitDurable(reopened.append(next));
+        List<TradeJournalEntry> entries = readAll(reopened, 0);
+        reopened.close();
+
+        assertEquals(2, entries.size());
+        assertEquals(trade, entries.get(0).getTrade());
+        assertEquals(next, entries.get(1).getTrade());
+    }
+}
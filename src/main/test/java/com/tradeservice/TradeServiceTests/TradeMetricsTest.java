@@ -0,0 +1,69 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.broker.external.BrokerTrade;
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.service.TradeMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TradeMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TradeMetrics tradeMetrics = new TradeMetrics(registry);
+
+    private Trade trade() {
+        return new Trade(UUID.randomUUID(), 10, "EUR/USD", BrokerTradeSide.SELL, BigDecimal.valueOf(1.25),
+                TradeStatus.PENDING_EXECUTION, null, null);
+    }
+
+    private BrokerTrade brokerTrade(Trade trade) {
+        return new BrokerTrade(trade.getId(), trade.getSymbol(), trade.getQuantity(), trade.getSide(),
+                trade.getPrice());
+    }
+
+    @Test
+    public void test_lifecycleTimers() {
+        Trade trade = trade();
+
+        tradeMetrics.persisted(trade, System.nanoTime());
+        tradeMetrics.dispatched(Collections.singletonList(brokerTrade(trade)));
+        tradeMetrics.responded(trade.getId(), "success");
+        tradeMetrics.statusWritten(System.nanoTime());
+
+        assertEquals(1, registry.get("trade.submit.persist").timer().count());
+        assertEquals(1, registry.get("trade.persist.dispatch").timer().count());
+        assertEquals(1, registry.get("trade.broker.round.trip")
+                .tags("symbol", "EUR/USD", "side", "SELL", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("trade.callback.status.write").timer().count());
+        assertEquals(0, tradeMetrics.getInFlightCount());
+    }
+
+    @Test
+    public void test_expiredAndRejectedTradesAreNoLongerTracked() {
+        Trade expired = trade();
+        Trade rejected = trade();
+        tradeMetrics.persisted(expired, System.nanoTime());
+        tradeMetrics.persisted(rejected, System.nanoTime());
+
+        tradeMetrics.expired(Collections.singletonList(expired.getId()), 1);
+        tradeMetrics.rejected(rejected.getId());
+        tradeMetrics.responded(expired.getId(), "failure");
+
+        assertEquals(0, tradeMetrics.getInFlightCount());
+        assertEquals(1.0, registry.get("trade.expired").counter().count());
+        assertEquals(1.0, registry.get("trade.rejected").counter().count());
+        assertEquals(1.0, registry.get("trade.broker.responses.unmatched").counter().count());
+        assertNull(registry.find("trade.broker.round.trip").timer());
+    }
+}
@@ -0,0 +1,173 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.broker.external.BrokerTradeSide;
+import com.client.entity.Trade;
+import com.client.entity.TradeOutbox;
+import com.client.entity.TradeStatus;
+import com.client.respository.TradeOutboxRepository;
+import com.client.respository.TradeRepository;
+import com.client.service.BrokerDispatcher;
+import com.client.service.TradeOutboxRelay;
+
+public class TradeOutboxRelayTest {
+
+    private final TradeOutboxRepository tradeOutboxRepository = mock(TradeOutboxRepository.class);
+    private final TradeRepository tradeRepository = mock(TradeRepository.class);
+    private final BrokerDispatcher brokerDispatcher = mock(BrokerDispatcher.class);
+
+    /**
+     * Committed outbox entries by sequence, read and deleted by the mocked repository
+     */
+    private final Map<Long, TradeOutbox> outbox = new ConcurrentSkipListMap<>();
+
+    private void mockOutboxTable() {
+        when(tradeOutboxRepository.findBatch(any())).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            List<TradeOutbox> batch = new ArrayList<>(outbox.values());
+            return batch.subList(0, Math.min(batch.size(), pageable.getPageSize()));
+        });
+        when(tradeOutboxRepository.deleteRelayed(any())).thenAnswer(invocation -> {
+            Collection<Long> seqs = invocation.getArgument(0);
+            int deleted = 0;
+            for (Long seq : seqs) {
+                if (outbox.remove(seq) != null)
+                    deleted++;
+            }
+            return deleted;
+        });
+    }
+
+    private void commit(TradeOutbox entry) {
+        outbox.put(entry.getSeq(), entry);
+    }
+
+    private TradeOutbox entry(long seq, UUID tradeId) {
+        TradeOutbox entry = new TradeOutbox(tradeId, new Date());
+        entry.setSeq(seq);
+        return entry;
+    }
+
+    private Trade trade(UUID id, TradeStatus status) {
+        return new Trade(id, 10, "EUR/USD", BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), status, null, new Date());
+    }
+
+    @Test
+    public void test_reserveBoundedByBacklog() {
+        TradeOutboxRelay relay = new TradeOutboxRelay(tradeOutboxRepository, tradeRepository, brokerDispatcher,
+                16, 10, 2);
+
+        assertTrue(relay.reserve(2));
+        assertFalse(relay.reserve(1));
+        relay.release(1);
+        assertTrue(relay.reserve(1));
+        assertEquals(2, relay.getBacklog());
+    }
+
+    @Test
+    public void test_relaysPendingTradesAndCheckpoints() throws InterruptedException {
+        UUID pending = UUID.randomUUID();
+        UUID executed = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        mockOutboxTable();
+        commit(entry(1, pending));
+        commit(entry(2, executed));
+        commit(entry(3, missing));
+        when(tradeOutboxRepository.count()).thenReturn(3L);
+        when(tradeRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(trade(pending, TradeStatus.PENDING_EXECUTION),
+                        trade(executed, TradeStatus.EXECUTED)));
+        when(brokerDispatcher.submit(any())).thenReturn(true);
+
+        TradeOutboxRelay relay = new TradeOutboxRelay(tradeOutboxRepository, tradeRepository, brokerDispatcher,
+                16, 10, 100);
+        relay.start();
+
+        verify(tradeOutboxRepository, timeout(1000)).deleteRelayed(List.of(1L, 2L, 3L));
+        relay.stop();
+        assertTrue(outbox.isEmpty());
+        verify(brokerDispatcher, times(1)).submit(argThat(trade -> trade.getId().equals(pending)));
+        verify(brokerDispatcher, never()).submit(argThat(trade -> !trade.getId().equals(pending)));
+        assertEquals(0, relay.getBacklog());
+    }
+
+    @Test
+    public void test_waitsWhileDispatchQueueFull() throws InterruptedException {
+        UUID pending = UUID.randomUUID();
+        mockOutboxTable();
+        commit(entry(1, pending));
+        when(tradeRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(trade(pending, TradeStatus.PENDING_EXECUTION)));
+        when(brokerDispatcher.submit(any())).thenReturn(false, false, true);
+
+        TradeOutboxRelay relay = new TradeOutboxRelay(tradeOutboxRepository, tradeRepository, brokerDispatcher,
+                16, 10, 100);
+        relay.start();
+
+        verify(tradeOutboxRepository, timeout(1000)).deleteRelayed(List.of(1L));
+        relay.stop();
+        verify(brokerDispatcher, times(3)).submit(any());
+    }
+
+    /**
+     * An entry committed after an entry of a higher sequence was relayed
+     * is relayed as well
+     */
+    @Test
+    public void test_relaysEntriesCommittedOutOfSequenceOrder() throws InterruptedException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        mockOutboxTable();
+        when(tradeRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Trade> trades = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                trades.add(trade((UUID) id, TradeStatus.PENDING_EXECUTION));
+            }
+            return trades;
+        });
+        when(brokerDispatcher.submit(any())).thenReturn(true);
+
+        TradeOutboxRelay relay = new TradeOutboxRelay(tradeOutboxRepository, tradeRepository, brokerDispatcher,
+                16, 10, 100);
+        assertTrue(relay.reserve(2));
+        relay.start();
+
+        commit(entry(2, second));
+        relay.wakeUp();
+        verify(brokerDispatcher, timeout(1000)).submit(argThat(trade -> trade.getId().equals(second)));
+        verify(tradeOutboxRepository, timeout(1000)).deleteRelayed(List.of(2L));
+
+        commit(entry(1, first));
+        relay.wakeUp();
+        verify(brokerDispatcher, timeout(1000)).submit(argThat(trade -> trade.getId().equals(first)));
+        verify(tradeOutboxRepository, timeout(1000)).deleteRelayed(List.of(1L));
+        relay.stop();
+
+        assertTrue(outbox.isEmpty());
+        assertEquals(0, relay.getBacklog());
+    }
+}
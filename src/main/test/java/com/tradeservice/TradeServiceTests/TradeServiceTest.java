@@ -1,12 +1,20 @@
 package com.tradeservice.TradeServiceTests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -20,17 +28,35 @@ import javax.validation.Validator;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.broker.external.BrokerTradeSide;
 import com.client.entity.Trade;
+import com.client.entity.TradeStatus;
+import com.client.exception.InvalidCursorException;
+import com.client.exception.InvalidTradeQueryException;
+import com.client.exception.TradeBatchTooLargeException;
 import com.client.exception.TradeCreationException;
 import com.client.exception.TradeNotFoundException;
+import com.client.pojo.BatchTradeResult;
+import com.client.pojo.TradeDTO;
+import com.client.pojo.TradePage;
+import com.client.pojo.TradeQuery;
+import com.client.pojo.TradeRowPage;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.ArchivedTradeRepository;
+import com.client.respository.TradeJdbcRepository;
 import com.client.respository.TradeRepository;
+import com.client.service.TradeExpiryQueue;
 import com.client.service.TradeService;
+import com.client.service.TradeStatusCache;
+import com.client.service.TradeStatusWriteBehind;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -42,68 +68,181 @@ public class TradeServiceTest {
     @MockBean
     TradeRepository tradeRepository;
 
+    @MockBean
+    TradeStatusWriteBehind tradeStatusWriteBehind;
+
+    @MockBean
+    TradeStatusCache tradeStatusCache;
+
+    @MockBean
+    TradeExpiryQueue tradeExpiryQueue;
+
+    @MockBean
+    TradeJdbcRepository tradeJdbcRepository;
+
+    @MockBean
+    ArchivedTradeRepository archivedTradeRepository;
+
     @Autowired
     private Validator validator;
 
-    private String tradeId = "5d9242c0-6f17-461b-96cc-34442bb8b249";
+    private UUID tradeId = UUID.fromString("5d9242c0-6f17-461b-96cc-34442bb8b249");
 
     @Test
-    public void test_getAllTrades() {
+    public void test_getTrades() {
 
-        List<Trade> trades = Stream.of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "PENDING_EXECUTION", null, new Date()))
+        List<TradeDTO> trades = Stream.of(new TradeDTO(tradeId, 10, "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, new Date(), null))
                 .collect(Collectors.toList());
 
-        when(tradeRepository.findAll()).thenReturn(trades);
+        when(tradeRepository.findPage(PageRequest.of(0, 10))).thenReturn(trades);
+
+        TradePage page = tradeService.getTrades(null, 10);
+        assertEquals(1, page.getTrades().size());
+        assertNull(page.getNextCursor());
+
+    }
+
+    @Test
+    public void test_getTrades_nextPage() {
+        Date timeStamp = new Date();
+        List<TradeDTO> trades = Stream.of(new TradeDTO(tradeId, 10, "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, timeStamp, null))
+                .collect(Collectors.toList());
+
+        when(tradeRepository.findPage(PageRequest.of(0, 1))).thenReturn(trades);
+        when(tradeRepository.findPageAfter(timeStamp, tradeId, PageRequest.of(0, 1))).thenReturn(List.of());
+
+        TradePage page = tradeService.getTrades(null, 1);
+        assertNotNull(page.getNextCursor());
+        assertTrue(tradeService.getTrades(page.getNextCursor(), 1).getTrades().isEmpty());
+
+    }
+
+    @Test(expected = InvalidCursorException.class)
+    public void test_getTrades_invalidCursor() {
+        tradeService.getTrades("not a cursor", 10);
+    }
+
+    @Test
+    public void test_getTrades_filtered() {
+        TradeQuery query = new TradeQuery("USD/JPY", BrokerTradeSide.SELL, TradeStatus.NOT_EXECUTED, null, null,
+                List.of("id", "status"));
+        TradeRowPage rows = new TradeRowPage(List.of(), null);
 
-        assertEquals(1, tradeService.getAllTrades().size());
+        when(tradeJdbcRepository.findTrades(query, null, TradeService.MAX_PAGE_SIZE)).thenReturn(rows);
 
+        assertEquals(rows, tradeService.getTrades(query, null, Integer.MAX_VALUE));
+        verify(tradeRepository, never()).findPage(any());
+    }
+
+    @Test(expected = InvalidTradeQueryException.class)
+    public void test_getTrades_unknownField() {
+        tradeService.getTrades(new TradeQuery(null, null, null, null, null, List.of("password")), null, 10);
+    }
+
+    @Test(expected = InvalidTradeQueryException.class)
+    public void test_getTrades_emptyTimeRange() {
+        Date now = new Date();
+        tradeService.getTrades(new TradeQuery(null, null, null, now, now, null), null, 10);
     }
 
     @Test
     public void test_getTradeById() {
 
-        Optional<Trade> optionalTrade = Optional
-                .of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                        BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "PENDING_EXECUTION", null, new Date()));
+        Optional<TradeDTO> optionalTrade = Optional
+                .of(new TradeDTO(tradeId, 10, "USD/JPY",
+                        BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, new Date(),
+                        null));
 
-        when(tradeRepository.getById(tradeId)).thenReturn(optionalTrade);
+        when(tradeRepository.findDTOById(tradeId)).thenReturn(optionalTrade);
 
         assertEquals(tradeId, tradeService.getTrade(tradeId).getId());
 
     }
 
+    @Test
+    public void test_getTradeById_archived() {
+
+        when(tradeRepository.findDTOById(tradeId)).thenReturn(Optional.empty());
+        when(archivedTradeRepository.findDTOById(tradeId)).thenReturn(Optional.of(new TradeDTO(tradeId, 10,
+                "USD/JPY", BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.EXECUTED, null, new Date(),
+                null)));
+
+        assertEquals(TradeStatus.EXECUTED, tradeService.getTrade(tradeId).getStatus());
+
+    }
+
     @Test(expected = TradeNotFoundException.class)
     public void test_getTradeByIdNotFoundTest() {
 
-        Optional<Trade> optionalTrade = Optional
-                .of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                        BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "PENDING_EXECUTION", null, new Date()));
+        Optional<TradeDTO> optionalTrade = Optional
+                .of(new TradeDTO(tradeId, 10, "USD/JPY",
+                        BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, new Date(),
+                        null));
 
-        when(tradeRepository.getById(tradeId)).thenReturn(optionalTrade);
+        when(tradeRepository.findDTOById(tradeId)).thenReturn(optionalTrade);
 
-        assertEquals(tradeId, tradeService.getTrade("tradeId").getId());
+        assertEquals(tradeId, tradeService.getTrade(UUID.randomUUID()).getId());
 
     }
 
     @Test
     public void test_getTradeStatus() {
 
-        Optional<Trade> optionalTrade = Optional
-                .of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                        BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "NOT_EXECUTED", "No available quotes",
-                        new Date()));
+        when(tradeRepository.findStatusById(tradeId)).thenReturn(Optional.of(TradeStatus.NOT_EXECUTED));
+
+        assertEquals(TradeStatus.NOT_EXECUTED, tradeService.getTradeStatus(tradeId).getStatus());
+        verify(tradeRepository, never()).findDTOById(tradeId);
+        verify(tradeStatusCache, never()).load(any(TradeStatusUpdate.class));
+
+    }
+
+    @Test
+    public void test_getTradeStatus_archived() {
+
+        when(tradeRepository.findStatusById(tradeId)).thenReturn(Optional.empty());
+        when(archivedTradeRepository.findStatusById(tradeId)).thenReturn(Optional.of(TradeStatus.NOT_EXECUTED));
+
+        assertEquals(TradeStatus.NOT_EXECUTED, tradeService.getTradeStatus(tradeId).getStatus());
+
+    }
+
+    @Test(expected = TradeNotFoundException.class)
+    public void test_getTradeStatusNotFound() {
 
-        when(tradeRepository.getById(tradeId)).thenReturn(optionalTrade);
+        when(tradeRepository.findStatusById(tradeId)).thenReturn(Optional.empty());
 
-        assertEquals("NOT_EXECUTED", tradeService.getTradeStatus(tradeId).getStatus());
+        tradeService.getTradeStatus(tradeId);
+
+    }
+
+    @Test
+    public void test_getTradeStatusUpdate() {
+
+        when(tradeRepository.findStatusUpdateById(tradeId)).thenReturn(Optional
+                .of(new TradeStatusUpdate(tradeId, TradeStatus.NOT_EXECUTED, "No available quotes", new Date())));
+
+        assertEquals("No available quotes", tradeService.getTradeStatusUpdate(tradeId).getReason());
+        verify(tradeStatusCache, times(1)).load(any(TradeStatusUpdate.class));
+
+    }
+
+    @Test
+    public void test_getTradeStatus_cached() {
+
+        when(tradeStatusCache.get(tradeId))
+                .thenReturn(new TradeStatusUpdate(tradeId, TradeStatus.PENDING_EXECUTION, null, new Date()));
+
+        assertEquals(TradeStatus.PENDING_EXECUTION, tradeService.getTradeStatus(tradeId).getStatus());
+        verify(tradeRepository, never()).findStatusById(tradeId);
 
     }
 
     @Test
     public void test_checkViolations() {
         Trade trade = new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "NOT_EXECUTED", "No available quotes",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.NOT_EXECUTED, "No available quotes",
                 new Date());
 
         Set<ConstraintViolation<Trade>> violations = validator.validate(trade);
@@ -126,57 +265,145 @@ public class TradeServiceTest {
     @Test
     public void test_saveTrade() throws TradeCreationException {
         Trade trade = new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "NOT_EXECUTED", "No available quotes",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.NOT_EXECUTED, "No available quotes",
                 new Date());
 
-        when(tradeRepository.save(trade)).thenReturn(trade);
+        when(tradeRepository.saveAndFlush(trade)).thenReturn(trade);
 
         assertEquals(trade, tradeService.saveTrade(trade, BrokerTradeSide.BUY));
     }
 
     @Test
-    public void test_findIdleTrades() {
+    public void test_saveTrade_replaysClientOrderId() throws TradeCreationException {
+        Trade trade = new Trade(null, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), null, null, null);
+
+        when(tradeRepository.saveAndFlush(any(Trade.class))).thenAnswer(invocation -> {
+            Trade saved = invocation.getArgument(0);
+            saved.setId(tradeId);
+            return saved;
+        });
+
+        Trade original = tradeService.saveTrade(trade, BrokerTradeSide.BUY, "replay-order-1");
+        Trade retried = tradeService.saveTrade(new Trade(null, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), null, null, null), BrokerTradeSide.BUY,
+                "replay-order-1");
+
+        assertEquals(tradeId, retried.getId());
+        assertEquals(original, retried);
+        assertEquals("replay-order-1", original.getClientOrderId());
+        verify(tradeRepository, times(1)).saveAndFlush(any(Trade.class));
+    }
+
+    @Test
+    public void test_saveTrade_clientOrderIdUniqueIndex() throws TradeCreationException {
+        Trade original = new Trade(tradeId, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), TradeStatus.PENDING_EXECUTION, null, new Date());
 
-        List<Trade> trades = Stream.of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "PENDING_EXECUTION", null, new Date()))
-                .collect(Collectors.toList());
+        when(tradeRepository.saveAndFlush(any(Trade.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(tradeRepository.findByClientOrderId("evicted-order-1")).thenReturn(Optional.of(original));
 
-        when(tradeRepository.findIdleTrades()).thenReturn(trades);
+        assertEquals(original, tradeService.saveTrade(new Trade(null, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), null, null, null), BrokerTradeSide.BUY,
+                "evicted-order-1"));
+    }
 
-        assertEquals(1, tradeService.findIdleTrades().size());
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_saveTrades() {
+        Trade valid = new Trade(null, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.SELL, BigDecimal.valueOf(1.25), null, null, null);
+        Trade invalid = new Trade(null, Long.valueOf(10), "USD/JPY",
+                BrokerTradeSide.BUY, BigDecimal.valueOf(0), null, null, null);
+        Trade noSide = new Trade(null, Long.valueOf(10), "EUR/USD",
+                null, BigDecimal.valueOf(1.25), null, null, null);
+
+        List<BatchTradeResult> results = tradeService.saveTrades(List.of(valid, invalid, noSide));
+
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0).getId());
+        assertNull(results.get(0).getError());
+        assertEquals("price must be greater than 0", results.get(1).getError());
+        assertEquals("side must not be null", results.get(2).getError());
+
+        ArgumentCaptor<List<Trade>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(tradeJdbcRepository, times(1)).insertTrades(inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+        assertEquals(TradeStatus.PENDING_EXECUTION, inserted.getValue().get(0).getStatus());
+        verify(tradeExpiryQueue, times(1)).schedule(eq(results.get(0).getId()), anyLong());
+    }
 
+    @Test(expected = TradeBatchTooLargeException.class)
+    public void test_saveTrades_tooLarge() {
+        tradeService.saveTrades(Collections.nCopies(50001, new Trade()));
     }
 
     @Test
     public void test_updateTradeStatus() {
+        ArgumentCaptor<TradeStatusUpdate> updates = ArgumentCaptor.forClass(TradeStatusUpdate.class);
+        when(tradeExpiryQueue.cancel(tradeId)).thenReturn(true);
+
+        tradeService.updateTradeStatus(tradeId);
+        tradeService.updateTradeStatus(tradeId, "Time execceded");
+
+        verify(tradeStatusWriteBehind, times(2)).enqueue(updates.capture());
+        verify(tradeStatusCache, times(2)).put(any(TradeStatusUpdate.class));
+        verify(tradeRepository, never()).findStatusById(tradeId);
+        assertEquals(TradeStatus.EXECUTED, updates.getAllValues().get(0).getStatus());
+        assertEquals(TradeStatus.NOT_EXECUTED, updates.getAllValues().get(1).getStatus());
+        assertEquals("Time execceded", updates.getAllValues().get(1).getReason());
+    }
+
+    @Test
+    public void test_updateTradeStatus_notPending() {
+        when(tradeExpiryQueue.cancel(tradeId)).thenReturn(false);
+
+        tradeService.updateTradeStatus(tradeId);
+
+        verify(tradeStatusWriteBehind, never()).enqueue(any(TradeStatusUpdate.class));
+        verify(tradeStatusCache, never()).put(any(TradeStatusUpdate.class));
+    }
+
+    @Test
+    public void test_expireTrades() {
+        List<UUID> ids = List.of(tradeId);
+        when(tradeRepository.expireTrades(ids)).thenReturn(1);
+
+        assertEquals(1, tradeService.expireTrades(ids));
+        verify(tradeStatusCache, times(1)).put(any(TradeStatusUpdate.class));
+    }
+
+    @Test
+    public void test_saveTrade_registersExpiry() throws TradeCreationException {
         Trade trade = new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "NOT_EXECUTED", "No available quotes",
-                new Date());
+                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), null, null, null);
+        when(tradeRepository.saveAndFlush(trade)).thenReturn(trade);
+
+        tradeService.saveTrade(trade, BrokerTradeSide.BUY);
+
+        verify(tradeExpiryQueue, times(1)).schedule(eq(tradeId), anyLong());
+    }
+
+    @Test
+    public void test_getTradeStatus_pendingUpdate() {
 
-        when(tradeRepository.getById(tradeId)).thenReturn(Optional.of(trade));
-        when(tradeRepository.save(trade)).thenReturn(trade);
+        when(tradeStatusWriteBehind.getPending(tradeId))
+                .thenReturn(new TradeStatusUpdate(tradeId, TradeStatus.EXECUTED, null, new Date()));
 
-        tradeService.updateTradeStatus(UUID.fromString(tradeId));
-        tradeService.updateTradeStatus(UUID.fromString(tradeId), "Time execceded");
+        assertEquals(TradeStatus.EXECUTED, tradeService.getTradeStatus(tradeId).getStatus());
+        verify(tradeRepository, never()).findStatusById(tradeId);
 
-        verify(tradeRepository, times(2)).getById(tradeId);
-        verify(tradeRepository, times(2)).save(trade);
     }
 
     @Test
     public void test_updateIdleTrades(){
 
-        List<Trade> trades = Stream.of(new Trade(tradeId, Long.valueOf(10), "USD/JPY",
-                BrokerTradeSide.BUY, BigDecimal.valueOf(1.25), "PENDING_EXECUTION", null, new Date()))
-                .collect(Collectors.toList());
-
-        when(tradeRepository.findIdleTrades()).thenReturn(trades);
-        when(tradeRepository.saveAll(trades)).thenReturn(trades);
+        when(tradeRepository.expireIdleTrades(any(Date.class), anyInt())).thenReturn(1000, 1000, 5);
 
-        tradeService.updateIdleTrades();
+        assertEquals(2005, tradeService.updateIdleTrades());
 
-        verify(tradeRepository, times(1)).findIdleTrades();
-        verify(tradeRepository, times(1)).saveAll(trades);
+        verify(tradeRepository, times(3)).expireIdleTrades(any(Date.class), anyInt());
+        verify(tradeStatusCache, times(1)).expirePending(any(Date.class), eq(TradeStatus.NOT_EXECUTED), eq("trade expired"));
 
     }
 
@@ -0,0 +1,106 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.client.entity.TradeStatus;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.service.TradeStatusCache;
+
+public class TradeStatusCacheTest {
+
+    private final UUID pending = UUID.randomUUID();
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+
+    private TradeStatusUpdate update(UUID id, TradeStatus status) {
+        return new TradeStatusUpdate(id, status, null, new Date());
+    }
+
+    @Test
+    public void test_hitAndMiss() {
+        TradeStatusCache cache = new TradeStatusCache(10, 60000);
+        cache.put(update(first, TradeStatus.PENDING_EXECUTION));
+
+        assertEquals(TradeStatus.PENDING_EXECUTION, cache.get(first).getStatus());
+        assertNull(cache.get(second));
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    public void test_terminalEvictedBySize() {
+        TradeStatusCache cache = new TradeStatusCache(2, 60000);
+        cache.put(update(pending, TradeStatus.PENDING_EXECUTION));
+        cache.put(update(first, TradeStatus.EXECUTED));
+        cache.put(update(second, TradeStatus.NOT_EXECUTED));
+        cache.put(update(third, TradeStatus.EXECUTED));
+
+        assertNull(cache.get(first));
+        assertNotNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertNotNull(cache.get(pending));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void test_terminalEvictedByTtl() throws InterruptedException {
+        TradeStatusCache cache = new TradeStatusCache(10, 1);
+        cache.put(update(pending, TradeStatus.PENDING_EXECUTION));
+        cache.put(update(first, TradeStatus.EXECUTED));
+        Thread.sleep(5);
+
+        assertNull(cache.get(first));
+        assertNotNull(cache.get(pending));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void test_loadDoesNotOverwriteNewerStatus() {
+        TradeStatusCache cache = new TradeStatusCache(10, 60000);
+        cache.put(update(first, TradeStatus.EXECUTED));
+        cache.load(update(first, TradeStatus.PENDING_EXECUTION));
+
+        assertEquals(TradeStatus.EXECUTED, cache.get(first).getStatus());
+    }
+
+    @Test
+    public void test_finalStatusIsKept() {
+        TradeStatusCache cache = new TradeStatusCache(10, 60000);
+        cache.put(update(first, TradeStatus.PENDING_EXECUTION));
+        cache.put(update(first, TradeStatus.NOT_EXECUTED));
+        cache.put(update(first, TradeStatus.EXECUTED));
+        cache.put(update(first, TradeStatus.PENDING_EXECUTION));
+
+        assertEquals(TradeStatus.NOT_EXECUTED, cache.get(first).getStatus());
+    }
+
+    @Test
+    public void test_pendingStatusIsKept() {
+        TradeStatusCache cache = new TradeStatusCache(10, 60000);
+        cache.put(new TradeStatusUpdate(first, TradeStatus.PENDING_EXECUTION, null, new Date(1000)));
+        cache.put(new TradeStatusUpdate(first, TradeStatus.PENDING_EXECUTION, null, new Date(2000)));
+
+        assertEquals(new Date(1000), cache.get(first).getTimeStamp());
+    }
+
+    @Test
+    public void test_expirePending() {
+        TradeStatusCache cache = new TradeStatusCache(10, 60000);
+        cache.put(new TradeStatusUpdate(first, TradeStatus.PENDING_EXECUTION, null, new Date(1000)));
+        cache.put(new TradeStatusUpdate(second, TradeStatus.PENDING_EXECUTION, null, new Date()));
+
+        cache.expirePending(new Date(2000), TradeStatus.NOT_EXECUTED, "trade expired");
+
+        assertEquals(TradeStatus.NOT_EXECUTED, cache.get(first).getStatus());
+        assertEquals("trade expired", cache.get(first).getReason());
+        assertEquals(TradeStatus.PENDING_EXECUTION, cache.get(second).getStatus());
+    }
+}
@@ -0,0 +1,110 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.client.entity.TradeStatus;
+import com.client.exception.TradeNotFoundException;
+import com.client.journal.TradeJournal;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeJdbcRepository;
+import com.client.respository.TradeRepository;
+import com.client.service.TradeExpiryQueue;
+import com.client.service.TradeService;
+import com.client.service.TradeStatusCache;
+import com.client.service.TradeStatusPublisher;
+import com.client.service.TradeStatusUpdater;
+import com.client.service.TradeStatusWriteBehind;
+
+public class TradeStatusPublisherTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    private final TradeExpiryQueue tradeExpiryQueue = new TradeExpiryQueue();
+    private final TradeStatusUpdater tradeStatusUpdater = new TradeStatusUpdater(mock(TradeRepository.class),
+            new TradeStatusCache(100, 60000), new TradeStatusWriteBehind(mock(TradeJdbcRepository.class), 100, 60000),
+            tradeExpiryQueue, mock(TradeJournal.class));
+    private final TradeService tradeService = mock(TradeService.class);
+    private final TradeStatusPublisher publisher = new TradeStatusPublisher(tradeStatusUpdater, tradeService, 16,
+            60000, 1);
+
+    @Before
+    public void setUp() {
+        publisher.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        publisher.stop();
+    }
+
+    private void pending(UUID id) {
+        tradeExpiryQueue.schedule(id, System.currentTimeMillis() + 60000);
+        when(tradeService.getTradeStatusUpdate(id))
+                .thenReturn(new TradeStatusUpdate(id, TradeStatus.PENDING_EXECUTION, null, new Date()));
+    }
+
+    @Test
+    public void test_subscriptionEndsWithFinalStatuses() {
+        pending(first);
+        pending(second);
+
+        publisher.subscribe(Arrays.asList(first, second));
+        assertEquals(2, publisher.getSubscribedCount());
+
+        tradeStatusUpdater.executed(first);
+        assertEquals(1, publisher.getSubscribedCount());
+
+        tradeStatusUpdater.notExecuted(second, "No available quotes");
+        assertEquals(0, publisher.getSubscribedCount());
+    }
+
+    @Test
+    public void test_subscriptionLargerThanBuffer() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            pending(id);
+            ids.add(id);
+        }
+
+        publisher.subscribe(ids);
+        assertEquals(1000, publisher.getSubscribedCount());
+
+        tradeStatusUpdater.executed(ids.get(0));
+        assertEquals(999, publisher.getSubscribedCount());
+    }
+
+    @Test
+    public void test_finalTradeIsNotSubscribed() {
+        when(tradeService.getTradeStatusUpdate(first))
+                .thenReturn(new TradeStatusUpdate(first, TradeStatus.EXECUTED, null, new Date()));
+
+        publisher.subscribe(Collections.singletonList(first));
+
+        assertEquals(0, publisher.getSubscribedCount());
+    }
+
+    @Test
+    public void test_unknownTradeIsRejected() {
+        pending(first);
+        when(tradeService.getTradeStatusUpdate(second)).thenThrow(new TradeNotFoundException("Not Found"));
+
+        assertThrows(TradeNotFoundException.class, () -> publisher.subscribe(Arrays.asList(first, second)));
+        assertEquals(0, publisher.getSubscribedCount());
+    }
+}
@@ -0,0 +1,110 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.client.entity.TradeStatus;
+import com.client.journal.TradeJournal;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeJdbcRepository;
+import com.client.respository.TradeRepository;
+import com.client.service.TradeExpiryQueue;
+import com.client.service.TradeStatusCache;
+import com.client.service.TradeStatusUpdater;
+import com.client.service.TradeStatusWriteBehind;
+
+public class TradeStatusUpdaterTest {
+
+    private static final int TRADES = 20000;
+    private static final int THREADS = 8;
+
+    /**
+     * Broker responses of several threads race with each other and with the
+     * expiry of the same trades, every trade has to get exactly one final
+     * status and keep the one its listeners were told about
+     */
+    @Test
+    public void test_concurrentResponsesAndExpiryTransitionOnce() throws Exception {
+        TradeStatusCache tradeStatusCache = new TradeStatusCache(TRADES, 60000);
+        TradeExpiryQueue tradeExpiryQueue = new TradeExpiryQueue();
+        TradeStatusUpdater tradeStatusUpdater = new TradeStatusUpdater(mock(TradeRepository.class), tradeStatusCache,
+                new TradeStatusWriteBehind(mock(TradeJdbcRepository.class), Integer.MAX_VALUE, 60000),
+                tradeExpiryQueue, mock(TradeJournal.class));
+
+        Map<UUID, TradeStatusUpdate> notified = new ConcurrentHashMap<>();
+        AtomicInteger repeated = new AtomicInteger();
+        CountDownLatch transitioned = new CountDownLatch(TRADES);
+        tradeStatusUpdater.addListener(update -> {
+            if (notified.putIfAbsent(update.getId(), update) != null)
+                repeated.incrementAndGet();
+            transitioned.countDown();
+        });
+
+        List<UUID> ids = new ArrayList<>(TRADES);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < TRADES; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            tradeStatusCache.put(new TradeStatusUpdate(id, TradeStatus.PENDING_EXECUTION, null, new Date()));
+            tradeExpiryQueue.schedule(id, now + ThreadLocalRandom.current().nextInt(200));
+        }
+
+        CyclicBarrier start = new CyclicBarrier(THREADS + 1);
+        AtomicInteger applied = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean executes = t % 2 == 0;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    return;
+                }
+                for (UUID id : ids) {
+                    boolean written = executes ? tradeStatusUpdater.executed(id)
+                            : tradeStatusUpdater.notExecuted(id, "No available quotes");
+                    if (written)
+                        applied.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        tradeExpiryQueue.start(tradeStatusUpdater::expireTrades);
+        start.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(transitioned.await(10, TimeUnit.SECONDS));
+        tradeExpiryQueue.stop();
+
+        assertEquals(0, repeated.get());
+        assertEquals(0, tradeExpiryQueue.getPendingCount());
+        assertEquals(TRADES, notified.size());
+        int expired = 0;
+        for (UUID id : ids) {
+            TradeStatusUpdate update = notified.get(id);
+            assertEquals(update.getStatus(), tradeStatusCache.get(id).getStatus());
+            assertEquals(update.getReason(), tradeStatusCache.get(id).getReason());
+            if (TradeStatus.NOT_EXECUTED == update.getStatus() && "trade expired".equals(update.getReason()))
+                expired++;
+        }
+        assertEquals(TRADES, applied.get() + expired);
+    }
+}
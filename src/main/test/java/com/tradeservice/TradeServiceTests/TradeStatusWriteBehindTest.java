@@ -0,0 +1,63 @@
+package com.tradeservice.TradeServiceTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.client.entity.TradeStatus;
+import com.client.pojo.TradeStatusUpdate;
+import com.client.respository.TradeJdbcRepository;
+import com.client.service.TradeStatusWriteBehind;
+
+public class TradeStatusWriteBehindTest {
+
+    private UUID tradeId = UUID.fromString("5d9242c0-6f17-461b-96cc-34442bb8b249");
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_flushCoalescesUpdatesPerTrade() {
+        TradeJdbcRepository tradeJdbcRepository = mock(TradeJdbcRepository.class);
+        when(tradeJdbcRepository.updateStatuses(anyList())).thenReturn(new int[] { 1, 1 });
+        TradeStatusWriteBehind writeBehind = new TradeStatusWriteBehind(tradeJdbcRepository, 100, 1000);
+
+        writeBehind.enqueue(new TradeStatusUpdate(tradeId, TradeStatus.EXECUTED, null, new Date()));
+        writeBehind.enqueue(
+                new TradeStatusUpdate(tradeId, TradeStatus.NOT_EXECUTED, "No available quotes", new Date()));
+        writeBehind.enqueue(new TradeStatusUpdate(UUID.fromString("e22ea403-79cc-403f-869d-8f3481e8582d"),
+                TradeStatus.EXECUTED, null, new Date()));
+
+        assertEquals(2, writeBehind.getPendingCount());
+        assertEquals(TradeStatus.NOT_EXECUTED, writeBehind.getPending(tradeId).getStatus());
+
+        writeBehind.flush();
+
+        ArgumentCaptor<List<TradeStatusUpdate>> batch = ArgumentCaptor.forClass(List.class);
+        verify(tradeJdbcRepository, times(1)).updateStatuses(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertEquals(0, writeBehind.getPendingCount());
+        assertNull(writeBehind.getPending(tradeId));
+    }
+
+    @Test
+    public void test_failedFlushKeepsUpdates() {
+        TradeJdbcRepository tradeJdbcRepository = mock(TradeJdbcRepository.class);
+        when(tradeJdbcRepository.updateStatuses(anyList())).thenThrow(new IllegalStateException("db down"));
+        TradeStatusWriteBehind writeBehind = new TradeStatusWriteBehind(tradeJdbcRepository, 100, 1000);
+
+        writeBehind.enqueue(new TradeStatusUpdate(tradeId, TradeStatus.EXECUTED, null, new Date()));
+        writeBehind.flush();
+
+        assertEquals(TradeStatus.EXECUTED, writeBehind.getPending(tradeId).getStatus());
+    }
+}